@@ -3,41 +3,74 @@ import type { Customer } from '../types/Customer';
 
 const API_BASE_URL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080/api';
 
+// With read replicas, a write is answered with X-Primary-Until: until then our reads must go to
+// the primary to see that write. The API is on another origin, so its cookie is never sent back;
+// echo the header instead.
+const PRIMARY_UNTIL_HEADER = 'X-Primary-Until';
+let primaryUntil = 0;
+
+const api = axios.create();
+
+api.interceptors.response.use((response) => {
+  const until = Number(response.headers[PRIMARY_UNTIL_HEADER.toLowerCase()]);
+  if (until > primaryUntil) {
+    primaryUntil = until;
+  }
+  return response;
+});
+
+api.interceptors.request.use((config) => {
+  if (Date.now() < primaryUntil) {
+    config.headers.set(PRIMARY_UNTIL_HEADER, String(primaryUntil));
+  }
+  return config;
+});
+
 export const customerService = {
-  // Get all customers
+  // Get all customers (the list endpoint is paginated unless unpaged is requested)
   getAllCustomers: async (): Promise<Customer[]> => {
-    const response = await axios.get(`${API_BASE_URL}/customers`);
+    const response = await api.get(`${API_BASE_URL}/customers`, {
+      params: { unpaged: true }
+    });
     return response.data;
   },
 
   // Get customer by ID
   getCustomerById: async (id: number): Promise<Customer> => {
-    const response = await axios.get(`${API_BASE_URL}/customers/${id}`);
+    const response = await api.get(`${API_BASE_URL}/customers/${id}`);
     return response.data;
   },
 
   // Create new customer
   createCustomer: async (customer: Omit<Customer, 'id'>): Promise<Customer> => {
-    const response = await axios.post(`${API_BASE_URL}/customers`, customer);
+    const response = await api.post(`${API_BASE_URL}/customers`, customer);
     return response.data;
   },
 
   // Delete customer
   deleteCustomer: async (id: number): Promise<void> => {
-    await axios.delete(`${API_BASE_URL}/customers/${id}`);
+    await api.delete(`${API_BASE_URL}/customers/${id}`);
   },
 
   // Search customers
   searchCustomers: async (name: string): Promise<Customer[]> => {
-    const response = await axios.get(`${API_BASE_URL}/customers/search`, {
+    const response = await api.get(`${API_BASE_URL}/customers/search`, {
       params: { name }
     });
     return response.data;
   },
 
+  // Autocomplete by first or last name prefix (served from the server's in-memory name index)
+  suggestCustomers: async (prefix: string, limit = 10): Promise<Customer[]> => {
+    const response = await api.get(`${API_BASE_URL}/customers/suggest`, {
+      params: { prefix, limit }
+    });
+    return response.data;
+  },
+
   // Health check
   healthCheck: async (): Promise<string> => {
-    const response = await axios.get(`${API_BASE_URL}/health`);
+    const response = await api.get(`${API_BASE_URL}/health`);
     return response.data;
   }
 };
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.example.relationaldataaccess.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.example.relationaldataaccess.RelationalDataAccessApplication;
+import com.example.relationaldataaccess.controller.CustomerController;
+import com.example.relationaldataaccess.service.CustomerBulkImportService;
+
+/**
+ * End-to-end controller calls (validation, JDBC, mapping) against the embedded H2 test profile,
+ * seeded with {@code rows} customers. HTTP is not included, and JSON serialization only for the
+ * streamed unpaged list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private CustomerController controller;
+    private long maxId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = SpringApplication.run(RelationalDataAccessApplication.class,
+                "--spring.profiles.active=test",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.relationaldataaccess=WARN");
+
+        // Seeded through the bulk import, so the indexes, the cache and the ETags see the rows
+        // like any other write
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            csv.append("First").append(i).append(",Last").append(i).append('\n');
+        }
+        context.getBean(CustomerBulkImportService.class).importCustomers(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), CustomerBulkImportService.FORMAT_CSV);
+        maxId = context.getBean(JdbcTemplate.class).queryForObject("SELECT MAX(id) FROM customers", Long.class);
+
+        controller = context.getBean(CustomerController.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object listFirstPage() throws IOException {
+        return controller.getAllCustomers(null, null, 50, false, false, null,
+                webRequest(new MockHttpServletResponse()));
+    }
+
+    @Benchmark
+    public int listUnpaged() throws IOException {
+        // The unpaged list is streamed into the response, so this includes JSON writing
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getAllCustomers(null, null, null, false, true, null, webRequest(response));
+        // Chunked, so there is no Content-Length: count the body itself
+        return response.getContentAsByteArray().length;
+    }
+
+    @Benchmark
+    public Object getById() {
+        return controller.getCustomerById(maxId / 2, webRequest(new MockHttpServletResponse()));
+    }
+
+    @Benchmark
+    public Object search() throws IOException {
+        return controller.searchCustomers("First12", 50, webRequest(new MockHttpServletResponse()));
+    }
+
+    private static ServletWebRequest webRequest(MockHttpServletResponse response) {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/api/customers"), response);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.relationaldataaccess.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.relationaldataaccess.Customer;
+import com.example.relationaldataaccess.CustomerRowMapper;
+import com.example.relationaldataaccess.jdbc.InstrumentedDataSource;
+import com.example.relationaldataaccess.jdbc.JdbcMetricsListener;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Overhead of {@link InstrumentedDataSource} with the Micrometer listener on the two hot query
+ * shapes: a single-row lookup and a page read. Compare {@code plain*} with {@code instrumented*}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JdbcInstrumentationBenchmark {
+
+    @Param({"50"})
+    private int pageSize;
+
+    private JdbcTemplate plain;
+    private JdbcTemplate instrumented;
+
+    @Setup
+    public void setUp() {
+        SingleConnectionDataSource dataSource =
+                new SingleConnectionDataSource("jdbc:h2:mem:instrumentation;DB_CLOSE_DELAY=-1", "sa", "", true);
+        plain = new JdbcTemplate(dataSource);
+        plain.execute("DROP TABLE IF EXISTS customers");
+        plain.execute("CREATE TABLE customers(id SERIAL PRIMARY KEY, first_name VARCHAR(255), last_name VARCHAR(255))");
+        List<Object[]> names = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            names.add(new Object[] {"First" + i, "Last" + i});
+        }
+        plain.batchUpdate("INSERT INTO customers(first_name, last_name) VALUES (?, ?)", names);
+
+        JdbcMetricsListener listener = new JdbcMetricsListener();
+        ReflectionTestUtils.setField(listener, "meterRegistry", new SimpleMeterRegistry());
+        instrumented = new JdbcTemplate(new InstrumentedDataSource(dataSource, () -> List.of(listener)));
+    }
+
+    @Benchmark
+    public List<Customer> plainById() {
+        return plain.query("SELECT id, first_name, last_name FROM customers WHERE id = ?", CustomerRowMapper.INSTANCE, 500);
+    }
+
+    @Benchmark
+    public List<Customer> instrumentedById() {
+        return instrumented.query("SELECT id, first_name, last_name FROM customers WHERE id = ?", CustomerRowMapper.INSTANCE, 500);
+    }
+
+    @Benchmark
+    public List<Customer> plainPage() {
+        return plain.query("SELECT id, first_name, last_name FROM customers WHERE id > ? ORDER BY id LIMIT ?",
+                CustomerRowMapper.INSTANCE, 100, pageSize);
+    }
+
+    @Benchmark
+    public List<Customer> instrumentedPage() {
+        return instrumented.query("SELECT id, first_name, last_name FROM customers WHERE id > ? ORDER BY id LIMIT ?",
+                CustomerRowMapper.INSTANCE, 100, pageSize);
+    }
+}
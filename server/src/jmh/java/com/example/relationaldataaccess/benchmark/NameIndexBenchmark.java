@@ -0,0 +1,84 @@
+package com.example.relationaldataaccess.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.relationaldataaccess.Customer;
+import com.example.relationaldataaccess.service.CustomerNameIndex;
+
+/**
+ * Autocomplete latency of {@link CustomerNameIndex}, answered from the sorted arrays alone or
+ * merged with a delta of pending creates. When each trial starts, the retained size of the index
+ * (including the customers it references) and its cost per customer are printed, measured with
+ * JOL; multiply the latter by a million for the footprint per million customers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g", "-Djdk.attach.allowAttachSelf", "-Djol.magicFieldOffset=true"})
+public class NameIndexBenchmark {
+
+    private static final String[] FIRST_NAMES = {"Ada", "Alan", "Barbara", "Donald", "Edsger", "Grace", "John",
+            "Joan", "Ken", "Leslie", "Margaret", "Niklaus", "Radia", "Shafi", "Tim", "Xiaoyu"};
+
+    @Param({"1000000"})
+    private int customers;
+
+    @Param({"0", "5000"})
+    private int pendingCreates;
+
+    private CustomerNameIndex index;
+    private String[] prefixes;
+
+    @Setup
+    public void setUp() {
+        index = new CustomerNameIndex();
+        // The first customers are merged into the sorted arrays in one go, the rest stay pending
+        int merged = customers - pendingCreates;
+        ReflectionTestUtils.setField(index, "mergeThreshold", merged);
+        for (int i = 1; i <= merged; i++) {
+            index.add(customer(i));
+        }
+        ReflectionTestUtils.setField(index, "mergeThreshold", Integer.MAX_VALUE);
+        for (int i = merged + 1; i <= customers; i++) {
+            index.add(customer(i));
+        }
+
+        long bytes = GraphLayout.parseInstance(index).totalSize();
+        System.out.printf("%n%d customers (%d pending): %,d bytes, %.1f bytes per customer%n", customers,
+                pendingCreates, bytes, (double) bytes / customers);
+
+        prefixes = new String[256];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < prefixes.length; i++) {
+            String name = i % 2 == 0 ? FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] : "Last" + random.nextInt(customers);
+            prefixes[i] = name.substring(0, Math.min(name.length(), 2 + random.nextInt(4))).toLowerCase();
+        }
+    }
+
+    @Benchmark
+    public List<Customer> suggest() {
+        return index.suggest(prefixes[ThreadLocalRandom.current().nextInt(prefixes.length)], 10);
+    }
+
+    private static Customer customer(int id) {
+        return new Customer(id, FIRST_NAMES[id % FIRST_NAMES.length], "Last" + id);
+    }
+}
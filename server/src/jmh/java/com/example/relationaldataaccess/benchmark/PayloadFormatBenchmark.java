@@ -0,0 +1,109 @@
+package com.example.relationaldataaccess.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.relationaldataaccess.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Payload size and encoding cost of a customer list per response format (JSON, CBOR, Smile),
+ * with and without gzip as applied by {@code server.compression}. The size of one encoded list is
+ * printed when each trial starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"1000", "100000"})
+    private int customers;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"none", "gzip"})
+    private String compression;
+
+    private List<Customer> list;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        list = new ArrayList<>(customers);
+        for (int i = 1; i <= customers; i++) {
+            list.add(new Customer(i, "First" + i, "Last" + i));
+        }
+        ObjectMapper objectMapper = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Customer.class));
+
+        CountingOutputStream counter = new CountingOutputStream();
+        try {
+            write(counter);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        System.out.printf("%n%d customers as %s, compression %s: %d bytes%n", customers, format, compression,
+                counter.count);
+    }
+
+    @Benchmark
+    public long encode() throws IOException {
+        CountingOutputStream counter = new CountingOutputStream();
+        write(counter);
+        return counter.count;
+    }
+
+    private void write(OutputStream out) throws IOException {
+        if ("gzip".equals(compression)) {
+            try (OutputStream gzip = new GZIPOutputStream(out, 8192)) {
+                writer.writeValue(gzip, list);
+            }
+        } else {
+            writer.writeValue(out, list);
+        }
+    }
+
+    /**
+     * Counts bytes without keeping them.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
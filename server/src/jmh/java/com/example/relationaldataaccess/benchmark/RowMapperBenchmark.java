@@ -0,0 +1,74 @@
+package com.example.relationaldataaccess.benchmark;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.relationaldataaccess.Customer;
+import com.example.relationaldataaccess.CustomerRowMapper;
+
+/**
+ * Cost of turning result set rows into {@link Customer} objects, isolated from the driver.
+ * Compares the label-based {@link CustomerRowMapper} with positional column access.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    @Param({"1000"})
+    private int rows;
+
+    private SimpleResultSet resultSet;
+
+    @Setup
+    public void setUp() {
+        resultSet = new SimpleResultSet();
+        resultSet.setAutoClose(false);
+        resultSet.addColumn("id", Types.BIGINT, 19, 0);
+        resultSet.addColumn("first_name", Types.VARCHAR, 255, 0);
+        resultSet.addColumn("last_name", Types.VARCHAR, 255, 0);
+        for (int i = 1; i <= rows; i++) {
+            resultSet.addRow((long) i, "First" + i, "Last" + i);
+        }
+    }
+
+    @Benchmark
+    public void mapByColumnLabel(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        int rowNum = 0;
+        while (resultSet.next()) {
+            blackhole.consume(CustomerRowMapper.INSTANCE.mapRow(resultSet, rowNum++));
+        }
+    }
+
+    @Benchmark
+    public void mapByColumnIndex(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        while (resultSet.next()) {
+            blackhole.consume(mapByIndex(resultSet));
+        }
+    }
+
+    private static Customer mapByIndex(ResultSet rs) throws SQLException {
+        return new Customer(rs.getLong(1), rs.getString(2), rs.getString(3));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.relationaldataaccess.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.relationaldataaccess.CustomerNames;
+
+/**
+ * Name sanitization as done by createCustomer and searchCustomers: the original
+ * {@code String.replaceAll} (compiles the pattern on every call) against the precompiled
+ * pattern in {@link CustomerNames}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SanitizationBenchmark {
+
+    @Param({"Josh", "  O'Brien-Smith (test) & co  "})
+    private String name;
+
+    @Benchmark
+    public String replaceAllPerCall() {
+        String trimmed = name.trim().replaceAll("[<>\"'%;()&+]", "");
+        return trimmed.substring(0, Math.min(trimmed.length(), 50));
+    }
+
+    @Benchmark
+    public String precompiledPattern() {
+        return CustomerNames.sanitize(name);
+    }
+}
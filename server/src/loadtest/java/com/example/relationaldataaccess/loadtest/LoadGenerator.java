@@ -0,0 +1,253 @@
+package com.example.relationaldataaccess.loadtest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.relationaldataaccess.RelationalDataAccessApplication;
+import com.example.relationaldataaccess.service.CustomerBulkImportService;
+
+/**
+ * HTTP load generator for the customer API, run through the {@code loadtest} Maven profile.
+ *
+ * Without {@code --target} it starts the application on the embedded H2 test profile, seeded
+ * with {@code --rows} customers, on a random port. It then sends the {@code --mix} of requests
+ * for {@code --warmup} (not measured) and {@code --duration}, and prints throughput and
+ * p50/p99/p99.9 latency per operation.
+ *
+ * {@code --mode=open} (default) sends {@code --rate} requests per second on a fixed schedule
+ * regardless of how fast responses come back, and measures each latency from the request's
+ * scheduled send time, which avoids coordinated omission. {@code --mode=closed} runs
+ * {@code --concurrency} callers that each send their next request when the previous one
+ * completes; their latencies are corrected for an expected interval of concurrency / rate.
+ *
+ * With {@code --baseline=<file>} the run fails (exit code 1) when throughput dropped by more than
+ * {@code --tolerance} or the error ratio rose. Latencies more than {@code --latency-tolerance}
+ * (plus {@code --slack-ms}) over the baseline are reported as warnings, and only fail the run with
+ * {@code --gate-latency=true}, for runs on dedicated hardware; with {@code --write-baseline=true}
+ * the file is rewritten from this run instead.
+ */
+public class LoadGenerator {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("target", "");
+        DEFAULTS.put("rows", "10000");
+        DEFAULTS.put("mode", "open");
+        DEFAULTS.put("rate", "50");
+        DEFAULTS.put("concurrency", "32");
+        DEFAULTS.put("warmup", "10s");
+        DEFAULTS.put("duration", "30s");
+        DEFAULTS.put("mix", "list:40,search:30,get:20,create:5,delete:5");
+        DEFAULTS.put("report", "target/loadtest-result.json");
+        DEFAULTS.put("baseline", "");
+        DEFAULTS.put("write-baseline", "false");
+        DEFAULTS.put("tolerance", "0.5");
+        DEFAULTS.put("latency-tolerance", "1.0");
+        DEFAULTS.put("slack-ms", "10");
+        DEFAULTS.put("gate-latency", "false");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        ConfigurableApplicationContext context = null;
+        String target = options.get("target");
+        if (target.isEmpty()) {
+            context = startApplication(Integer.parseInt(options.get("rows")));
+            target = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        }
+
+        int exitCode;
+        try {
+            exitCode = run(options, target);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(Map<String, String> options, String target) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Workload workload = new Workload(client, target, options.get("mix"));
+        workload.discoverIds();
+
+        boolean open = "open".equals(options.get("mode"));
+        double rate = Double.parseDouble(options.get("rate"));
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        Duration warmup = DurationStyle.detectAndParse(options.get("warmup"));
+        Duration duration = DurationStyle.detectAndParse(options.get("duration"));
+        System.out.printf("Load test against %s: %s loop, %s, %d customers, warmup %s, duration %s%n", target,
+                open ? "open" : "closed", open ? rate + " requests/s" : concurrency + " callers",
+                workload.knownIds(), warmup, duration);
+
+        LoadResult result = new LoadResult(open ? 0 : (long) (concurrency * 1_000_000_000L / rate));
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        if (open) {
+            runOpenLoop(workload, result, rate, measureFrom, end);
+        } else {
+            runClosedLoop(workload, result, concurrency, measureFrom, end);
+        }
+        result.setMeasuredSeconds(duration.toNanos() / 1e9);
+        result.print();
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("target", target);
+        settings.put("mode", open ? "open" : "closed");
+        settings.put(open ? "rate" : "concurrency", open ? rate : concurrency);
+        settings.put("mix", options.get("mix"));
+        settings.put("durationSeconds", duration.toSeconds());
+        result.writeReport(Path.of(options.get("report")), settings);
+
+        String baseline = options.get("baseline");
+        if (baseline.isEmpty()) {
+            return 0;
+        }
+        if (Boolean.parseBoolean(options.get("write-baseline"))) {
+            result.writeBaseline(Path.of(baseline));
+            System.out.println("Baseline written to " + baseline);
+            return 0;
+        }
+        LoadResult.Comparison comparison = result.compare(Path.of(baseline),
+                Double.parseDouble(options.get("tolerance")), Double.parseDouble(options.get("latency-tolerance")),
+                Double.parseDouble(options.get("slack-ms")), Boolean.parseBoolean(options.get("gate-latency")));
+        if (!comparison.warnings().isEmpty()) {
+            System.out.println("Latencies above " + baseline + " (not gated):");
+            comparison.warnings().forEach(warning -> System.out.println("  " + warning));
+        }
+        if (comparison.regressions().isEmpty()) {
+            System.out.println("No regressions against " + baseline);
+            return 0;
+        }
+        System.out.println("Regressions against " + baseline + ":");
+        comparison.regressions().forEach(regression -> System.out.println("  " + regression));
+        return 1;
+    }
+
+    private static void runOpenLoop(Workload workload, LoadResult result, double rate, long measureFrom, long end)
+            throws InterruptedException {
+        long intervalNanos = (long) (1_000_000_000L / rate);
+        long start = System.nanoTime();
+        AtomicInteger inFlight = new AtomicInteger();
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            String operation = workload.nextOperation();
+            boolean measured = scheduled >= measureFrom;
+            inFlight.incrementAndGet();
+            workload.send(operation).whenComplete((status, error) -> {
+                // From the scheduled time, not the actual send: a late send is part of the latency
+                long latency = System.nanoTime() - scheduled;
+                if (measured) {
+                    result.record(operation, latency, errorOf(status, error));
+                }
+                inFlight.decrementAndGet();
+            });
+        }
+        awaitInFlight(inFlight);
+    }
+
+    private static void runClosedLoop(Workload workload, LoadResult result, int concurrency, long measureFrom,
+            long end) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            sendNext(workload, result, measureFrom, end, done);
+        }
+        if (!done.await(TimeUnit.NANOSECONDS.toSeconds(end - System.nanoTime()) + 60, TimeUnit.SECONDS)) {
+            System.out.println("Some callers did not finish; their last requests are not counted");
+        }
+    }
+
+    private static void sendNext(Workload workload, LoadResult result, long measureFrom, long end,
+            CountDownLatch done) {
+        long sent = System.nanoTime();
+        if (sent >= end) {
+            done.countDown();
+            return;
+        }
+        String operation = workload.nextOperation();
+        workload.send(operation).whenComplete((status, error) -> {
+            if (sent >= measureFrom) {
+                result.record(operation, System.nanoTime() - sent, errorOf(status, error));
+            }
+            sendNext(workload, result, measureFrom, end, done);
+        });
+    }
+
+    private static String errorOf(Integer status, Throwable error) {
+        if (error != null) {
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            return cause.getClass().getSimpleName();
+        }
+        return status >= 200 && status < 300 ? null : "HTTP " + status;
+    }
+
+    private static void awaitInFlight(AtomicInteger inFlight) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(int rows) throws IOException {
+        ConfigurableApplicationContext context = SpringApplication.run(RelationalDataAccessApplication.class,
+                "--spring.profiles.active=test",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.relationaldataaccess=WARN");
+
+        // Seeded through the bulk import, so the indexes, the cache and the ETags see the rows
+        // like any other write
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            csv.append("First").append(i).append(",Last").append(i).append('\n');
+        }
+        context.getBean(CustomerBulkImportService.class).importCustomers(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), CustomerBulkImportService.FORMAT_CSV);
+        return context;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            String key = arg.startsWith("--") && separator > 2 ? arg.substring(2, separator) : null;
+            if (key == null || !DEFAULTS.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown option '" + arg + "'; options are --" + String.join(
+                        "=..., --", DEFAULTS.keySet()) + "=...");
+            }
+            options.put(key, arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
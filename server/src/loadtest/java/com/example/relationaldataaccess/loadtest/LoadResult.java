@@ -0,0 +1,187 @@
+package com.example.relationaldataaccess.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Latency histograms and error counts per operation, plus the comparison against a baseline.
+ *
+ * Latencies are recorded in microseconds. In open-loop runs they are measured from the time a
+ * request was scheduled to be sent, so a stalled server or generator shows up in full; closed-loop
+ * runs are corrected with {@link Histogram#recordValueWithExpectedInterval}.
+ */
+class LoadResult {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<String, Histogram> histograms = new TreeMap<>();
+    private final Map<String, AtomicLong> errors = new TreeMap<>();
+    private final Histogram total = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    private final long expectedIntervalMicros;
+    private final AtomicLong totalErrors = new AtomicLong();
+    private final Map<String, AtomicLong> errorCauses = new ConcurrentSkipListMap<>();
+    private double seconds;
+
+    LoadResult(long expectedIntervalNanos) {
+        this.expectedIntervalMicros = TimeUnit.NANOSECONDS.toMicros(expectedIntervalNanos);
+        for (String operation : Workload.OPERATIONS) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    /**
+     * Records one response; {@code error} is null for a 2xx, otherwise the status or exception.
+     */
+    void record(String operation, long latencyNanos, String error) {
+        long micros = Math.min(HIGHEST_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        if (expectedIntervalMicros > 0) {
+            histograms.get(operation).recordValueWithExpectedInterval(micros, expectedIntervalMicros);
+            total.recordValueWithExpectedInterval(micros, expectedIntervalMicros);
+        } else {
+            histograms.get(operation).recordValue(micros);
+            total.recordValue(micros);
+        }
+        if (error != null) {
+            errors.get(operation).incrementAndGet();
+            totalErrors.incrementAndGet();
+            errorCauses.computeIfAbsent(error, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    void setMeasuredSeconds(double seconds) {
+        this.seconds = seconds;
+    }
+
+    /**
+     * Flat metrics as stored in the baseline: {@code throughput} (requests/s), {@code errors.ratio}
+     * and {@code <total|operation>.<p50|p99>} plus {@code total.p999} in milliseconds (per operation
+     * there are too few samples for a stable p99.9).
+     */
+    Map<String, Double> metrics() {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        metrics.put("throughput", round(total.getTotalCount() / seconds));
+        metrics.put("errors.ratio", total.getTotalCount() == 0 ? 0 : round((double) totalErrors.get() / total.getTotalCount()));
+        addPercentiles(metrics, "total", total);
+        metrics.put("total.p999", millis(total.getValueAtPercentile(99.9)));
+        histograms.forEach((operation, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                addPercentiles(metrics, operation, histogram);
+            }
+        });
+        return metrics;
+    }
+
+    void print() {
+        System.out.printf("%n%-8s %10s %8s %10s %10s %10s %10s%n", "", "requests", "errors", "p50 ms", "p99 ms",
+                "p99.9 ms", "max ms");
+        histograms.forEach((operation, histogram) -> printRow(operation, histogram, errors.get(operation).get()));
+        printRow("total", total, totalErrors.get());
+        System.out.printf("Throughput: %.1f requests/s over %.1f s%n", total.getTotalCount() / seconds, seconds);
+        errorCauses.forEach((cause, count) -> System.out.printf("Errors: %d x %s%n", count.get(), cause));
+        System.out.println();
+    }
+
+    void writeReport(Path file, Map<String, Object> settings) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>(settings);
+        report.put("metrics", metrics());
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    void writeBaseline(Path file) throws IOException {
+        StringBuilder text = new StringBuilder("# Load test baseline (latencies in ms); regenerate with --write-baseline=true\n"
+                + "# Only throughput and errors.ratio fail the build; latencies are reported (see --gate-latency)\n");
+        new TreeMap<>(metrics()).forEach((key, value) -> text.append(key).append('=').append(value).append('\n'));
+        Files.writeString(file, text);
+    }
+
+    /**
+     * Compares this run with a baseline. Throughput below {@code baseline * (1 - tolerance)} and an
+     * error ratio more than 0.1 percentage points over the baseline are regressions. Latencies above
+     * {@code baseline * (1 + latencyTolerance) + slackMillis} are only warnings unless
+     * {@code gateLatency} is set: absolute latencies depend on the machine the test runs on, and
+     * shared CI runners vary too much between runs to fail a build on them.
+     */
+    Comparison compare(Path baselineFile, double tolerance, double latencyTolerance, double slackMillis,
+            boolean gateLatency) throws IOException {
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(baselineFile)) {
+            baseline.load(reader);
+        }
+        Map<String, Double> current = metrics();
+        List<String> regressions = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        for (String key : new TreeSet<>(baseline.stringPropertyNames())) {
+            double expected = Double.parseDouble(baseline.getProperty(key));
+            Double actual = current.get(key);
+            if (actual == null) {
+                continue;
+            }
+            double allowed;
+            boolean regressed;
+            boolean latency = false;
+            if (key.equals("throughput")) {
+                allowed = expected * (1 - tolerance);
+                regressed = actual < allowed;
+            } else if (key.equals("errors.ratio")) {
+                allowed = expected + 0.001;
+                regressed = actual > allowed;
+            } else {
+                allowed = expected * (1 + latencyTolerance) + slackMillis;
+                regressed = actual > allowed;
+                latency = true;
+            }
+            if (regressed) {
+                String message = String.format("%s: %.3f (baseline %.3f, allowed %.3f)", key, actual, expected, allowed);
+                (latency && !gateLatency ? warnings : regressions).add(message);
+            }
+        }
+        return new Comparison(regressions, warnings);
+    }
+
+    /**
+     * Metrics past their allowed values: {@code regressions} fail the run, {@code warnings} are only printed.
+     */
+    record Comparison(List<String> regressions, List<String> warnings) {}
+
+    private static void addPercentiles(Map<String, Double> metrics, String name, Histogram histogram) {
+        metrics.put(name + ".p50", millis(histogram.getValueAtPercentile(50)));
+        metrics.put(name + ".p99", millis(histogram.getValueAtPercentile(99)));
+    }
+
+    private static void printRow(String name, Histogram histogram, long errorCount) {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+        System.out.printf("%-8s %10d %8d %10.2f %10.2f %10.2f %10.2f%n", name, histogram.getTotalCount(), errorCount,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
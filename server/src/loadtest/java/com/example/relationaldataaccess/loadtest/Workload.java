@@ -0,0 +1,162 @@
+package com.example.relationaldataaccess.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The request mix: list pages, searches, lookups by ID (one per request, or {@code batch} for
+ * 20 per request), creates and deletes, picked at random according to their weights (e.g.
+ * {@code list:40,search:30,get:20,create:5,delete:5}).
+ *
+ * Lookups and list cursors use IDs that existed when the run started. Deletes remove customers
+ * created by this run; when there are none yet, a create is sent instead.
+ */
+class Workload {
+
+    static final List<String> OPERATIONS = List.of("list", "search", "get", "batch", "create", "delete");
+
+    private static final int BATCH_SIZE = 20;
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String[] names;
+    private final int[] cumulativeWeights;
+    private final List<Long> ids = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Long> created = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    Workload(HttpClient client, String baseUrl, String mix) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || !OPERATIONS.contains(parts[0])) {
+                throw new IllegalArgumentException("Invalid mix entry '" + entry + "', expected one of "
+                        + OPERATIONS + " followed by :weight");
+            }
+            weights.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        names = weights.keySet().toArray(String[]::new);
+        cumulativeWeights = new int[names.length];
+        int total = 0;
+        for (int i = 0; i < names.length; i++) {
+            total += weights.get(names[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The mix needs at least one positive weight");
+        }
+    }
+
+    /**
+     * Pages through the customer list once to learn the IDs to look up.
+     */
+    void discoverIds() throws Exception {
+        String cursor = null;
+        do {
+            String uri = baseUrl + "/api/customers?limit=500" + (cursor != null ? "&cursor=" + cursor : "");
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(uri)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET " + uri + " returned " + response.statusCode());
+            }
+            JsonNode page = objectMapper.readTree(response.body());
+            page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No customers at " + baseUrl + "; the load test needs seeded data");
+        }
+    }
+
+    int knownIds() {
+        return ids.size();
+    }
+
+    String nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return names[i];
+            }
+        }
+        return names[names.length - 1];
+    }
+
+    /**
+     * Sends one request of the given kind and completes with its status code.
+     */
+    CompletableFuture<Integer> send(String operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case "list":
+                return get("/api/customers?limit=50&after=" + (randomId(random) - 1));
+            case "search":
+                // Matches a handful of the seeded FirstN/LastN names
+                return get("/api/customers/search?name=st" + random.nextInt(1000));
+            case "get":
+                return get("/api/customers/" + randomId(random));
+            case "batch":
+                StringBuilder ids = new StringBuilder();
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    ids.append(i == 0 ? "" : ",").append(randomId(random));
+                }
+                return get("/api/customers?ids=" + ids);
+            case "delete":
+                Long id = created.poll();
+                if (id != null) {
+                    return client.sendAsync(HttpRequest.newBuilder(URI.create(baseUrl + "/api/customers/" + id))
+                                    .DELETE().build(), HttpResponse.BodyHandlers.discarding())
+                            .thenApply(HttpResponse::statusCode);
+                }
+                return create();
+            case "create":
+                return create();
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private CompletableFuture<Integer> get(String path) {
+        return client.sendAsync(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                        HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode);
+    }
+
+    private CompletableFuture<Integer> create() {
+        String body = "{\"firstName\":\"Load\",\"lastName\":\"Test" + sequence.incrementAndGet() + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/customers"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            if (response.statusCode() == 200) {
+                try {
+                    created.add(objectMapper.readTree(response.body()).get("id").asLong());
+                } catch (Exception e) {
+                    // Counted by status only; the customer is simply not deleted again
+                }
+            }
+            return response.statusCode();
+        });
+    }
+
+    private long randomId(ThreadLocalRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.relationaldataaccess;
+
+import java.time.Instant;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Progress of a bulk delete job")
+public class BulkDeleteJob {
+
+	public enum State { QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED }
+
+	@Schema(description = "Job identifier", example = "3f1c0e2a-8d7b-4f43-9a51-0c6f8e1d2b74")
+	private String id;
+
+	@Schema(description = "Current state", example = "RUNNING")
+	private State state;
+
+	@Schema(description = "Number of IDs requested; null for filter deletes, whose size is not known up front", example = "25000")
+	private Integer requested;
+
+	@Schema(description = "Customers deleted so far", example = "12000")
+	private long deleted;
+
+	@Schema(description = "Chunks committed so far, each in its own transaction", example = "24")
+	private long chunks;
+
+	@Schema(description = "When the job was accepted")
+	private Instant createdAt;
+
+	@Schema(description = "When the job completed, was cancelled or failed")
+	private Instant finishedAt;
+
+	@Schema(description = "Failure reason for FAILED jobs")
+	private String error;
+
+	// Default constructor
+	public BulkDeleteJob() {}
+
+	// Getters and setters
+	public String getId() { return id; }
+	public void setId(String id) { this.id = id; }
+
+	public State getState() { return state; }
+	public void setState(State state) { this.state = state; }
+
+	public Integer getRequested() { return requested; }
+	public void setRequested(Integer requested) { this.requested = requested; }
+
+	public long getDeleted() { return deleted; }
+	public void setDeleted(long deleted) { this.deleted = deleted; }
+
+	public long getChunks() { return chunks; }
+	public void setChunks(long chunks) { this.chunks = chunks; }
+
+	public Instant getCreatedAt() { return createdAt; }
+	public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+	public Instant getFinishedAt() { return finishedAt; }
+	public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+	public String getError() { return error; }
+	public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,42 @@
+package com.example.relationaldataaccess;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Customers to delete: either a list of IDs or a filter (all given filter fields must match)")
+public class BulkDeleteRequest {
+	@Schema(description = "IDs of the customers to delete", example = "[1, 2, 3]")
+	private List<Long> ids;
+
+	@Schema(description = "Delete customers with exactly this first name", example = "Load")
+	private String firstName;
+
+	@Schema(description = "Delete customers with exactly this last name", example = "Test")
+	private String lastName;
+
+	@Schema(description = "Delete customers with an ID of at least this value", example = "1000")
+	private Long minId;
+
+	@Schema(description = "Delete customers with an ID of at most this value", example = "2000")
+	private Long maxId;
+
+	// Default constructor
+	public BulkDeleteRequest() {}
+
+	// Getters and setters
+	public List<Long> getIds() { return ids; }
+	public void setIds(List<Long> ids) { this.ids = ids; }
+
+	public String getFirstName() { return firstName; }
+	public void setFirstName(String firstName) { this.firstName = firstName; }
+
+	public String getLastName() { return lastName; }
+	public void setLastName(String lastName) { this.lastName = lastName; }
+
+	public Long getMinId() { return minId; }
+	public void setMinId(Long minId) { this.minId = minId; }
+
+	public Long getMaxId() { return maxId; }
+	public void setMaxId(Long maxId) { this.maxId = maxId; }
+}
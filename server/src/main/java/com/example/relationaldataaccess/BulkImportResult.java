@@ -0,0 +1,94 @@
+package com.example.relationaldataaccess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of a bulk customer import")
+public class BulkImportResult {
+	@Schema(description = "Input format that was parsed", example = "csv")
+	private String format;
+
+	@Schema(description = "Number of data rows read from the request body", example = "500000")
+	private long received;
+
+	@Schema(description = "Number of customers inserted", example = "499998")
+	private long imported;
+
+	@Schema(description = "Number of rows that were rejected", example = "2")
+	private long rejected;
+
+	@Schema(description = "Number of insert batches executed", example = "500")
+	private long batches;
+
+	@Schema(description = "Wall-clock duration of the import in milliseconds", example = "8123")
+	private long elapsedMs;
+
+	@Schema(description = "Imported rows per second", example = "61553.5")
+	private double rowsPerSecond;
+
+	@Schema(description = "Rejected rows with the reason; capped at customers.bulk.max-reported-errors")
+	private List<RowError> errors = new ArrayList<>();
+
+	@Schema(description = "True when more rows were rejected than are listed in 'errors'")
+	private boolean errorsTruncated;
+
+	public BulkImportResult(String format) {
+		this.format = format;
+	}
+
+	// Default constructor
+	public BulkImportResult() {}
+
+	// Getters and setters
+	public String getFormat() { return format; }
+	public void setFormat(String format) { this.format = format; }
+
+	public long getReceived() { return received; }
+	public void setReceived(long received) { this.received = received; }
+
+	public long getImported() { return imported; }
+	public void setImported(long imported) { this.imported = imported; }
+
+	public long getRejected() { return rejected; }
+	public void setRejected(long rejected) { this.rejected = rejected; }
+
+	public long getBatches() { return batches; }
+	public void setBatches(long batches) { this.batches = batches; }
+
+	public long getElapsedMs() { return elapsedMs; }
+	public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+	public double getRowsPerSecond() { return rowsPerSecond; }
+	public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+
+	public List<RowError> getErrors() { return errors; }
+	public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+	public boolean isErrorsTruncated() { return errorsTruncated; }
+	public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+
+	@Schema(description = "A row that could not be imported")
+	public static class RowError {
+		@Schema(description = "1-based line number in the request body", example = "42")
+		private long line;
+
+		@Schema(description = "Why the row was rejected", example = "Last name cannot be empty")
+		private String message;
+
+		public RowError(long line, String message) {
+			this.line = line;
+			this.message = message;
+		}
+
+		// Default constructor
+		public RowError() {}
+
+		public long getLine() { return line; }
+		public void setLine(long line) { this.line = line; }
+
+		public String getMessage() { return message; }
+		public void setMessage(String message) { this.message = message; }
+	}
+}
@@ -0,0 +1,36 @@
+package com.example.relationaldataaccess;
+
+import java.util.regex.Pattern;
+
+/**
+ * Name sanitization shared by every path that accepts customer names.
+ */
+public final class CustomerNames {
+
+	public static final int MAX_LENGTH = 50;
+
+	// Characters stripped from names before they are stored or searched for
+	private static final Pattern UNSAFE_CHARACTERS = Pattern.compile("[<>\"'%;()&+]");
+
+	private CustomerNames() {}
+
+	/**
+	 * Trims the name, removes potentially dangerous characters and limits it to
+	 * {@link #MAX_LENGTH} characters. Returns an empty string when nothing is left.
+	 */
+	public static String sanitize(String name) {
+		if (name == null) {
+			return "";
+		}
+		String sanitized = UNSAFE_CHARACTERS.matcher(name.trim()).replaceAll("");
+		return sanitized.length() > MAX_LENGTH ? sanitized.substring(0, MAX_LENGTH) : sanitized;
+	}
+
+	/**
+	 * Escapes the {@code LIKE} wildcards {@code %} and {@code _} and the escape character itself,
+	 * so that {@code text} only matches literally in a pattern used with {@code ESCAPE '\'}.
+	 */
+	public static String escapeLike(String text) {
+		return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.relationaldataaccess;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "One page of customers from a keyset-paginated listing")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CustomerPage {
+	private static final String CURSOR_PREFIX = "id:";
+
+	@Schema(description = "Customers on this page, ordered by ID")
+	private List<Customer> items;
+
+	@Schema(description = "Opaque cursor for the next page; absent on the last page", example = "aWQ6NTA")
+	private String nextCursor;
+
+	@Schema(description = "Page size that was applied after enforcing the server maximum", example = "50")
+	private int limit;
+
+	@Schema(description = "Total number of customers; only present when includeTotal=true", example = "1234")
+	private Long total;
+
+	public CustomerPage(List<Customer> items, String nextCursor, int limit, Long total) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+		this.limit = limit;
+		this.total = total;
+	}
+
+	// Default constructor
+	public CustomerPage() {}
+
+	// Getters and setters
+	public List<Customer> getItems() { return items; }
+	public void setItems(List<Customer> items) { this.items = items; }
+
+	public String getNextCursor() { return nextCursor; }
+	public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+	public int getLimit() { return limit; }
+	public void setLimit(int limit) { this.limit = limit; }
+
+	public Long getTotal() { return total; }
+	public void setTotal(Long total) { this.total = total; }
+
+	public static String encodeCursor(long id) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns the last-seen ID carried by a cursor, or {@code null} when the cursor is malformed.
+	 */
+	public static Long decodeCursor(String cursor) {
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			if (!decoded.startsWith(CURSOR_PREFIX)) {
+				return null;
+			}
+			return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+}
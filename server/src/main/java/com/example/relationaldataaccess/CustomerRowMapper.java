@@ -0,0 +1,22 @@
+package com.example.relationaldataaccess;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Maps a row selected as {@code id, first_name, last_name} to a {@link Customer}.
+ */
+public class CustomerRowMapper implements RowMapper<Customer> {
+
+	public static final CustomerRowMapper INSTANCE = new CustomerRowMapper();
+
+	@Override
+	public Customer mapRow(ResultSet rs, int rowNum) throws SQLException {
+		return new Customer(
+				rs.getLong("id"),
+				rs.getString("first_name"),
+				rs.getString("last_name"));
+	}
+}
@@ -17,6 +17,8 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.relationaldataaccess.service.CustomerVersion;
+
 @SpringBootApplication
 @RestController
 public class RelationalDataAccessApplication implements CommandLineRunner {
@@ -36,6 +38,9 @@ public class RelationalDataAccessApplication implements CommandLineRunner {
 	@Autowired
 	JdbcTemplate jdbcTemplate;
 
+	@Autowired
+	CustomerVersion customerVersion;
+
 	@GetMapping("/api/health")
 	@CrossOrigin(origins = "${cors.allowed-origins:http://localhost:5173,http://localhost:5174}")
 	public String health() {
@@ -61,10 +66,11 @@ public class RelationalDataAccessApplication implements CommandLineRunner {
 		if (isProduction) {
 			log.info("Production mode: Checking and initializing database if needed...");
 			
-			// Check if table exists in production
+			// Check if table exists in production. Reads at most one row: COUNT(*) would scan the
+			// whole table on every instance start.
 			try {
-				Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers", Long.class);
-				log.info("Connected to database successfully. Current customer count: {}", count);
+				boolean hasData = !jdbcTemplate.queryForList("SELECT 1 FROM customers LIMIT 1", Integer.class).isEmpty();
+				log.info("Connected to database successfully. Customers table {}", hasData ? "has data" : "is empty");
 			} catch (Exception e) {
 				log.warn("Table 'customers' doesn't exist or database connection issue: {}", e.getMessage());
 				log.info("Attempting to create 'customers' table and sample data...");
@@ -78,8 +84,8 @@ public class RelationalDataAccessApplication implements CommandLineRunner {
 							"created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
 					
 					// Check if table is empty and add sample data
-					Long existingCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers", Long.class);
-					if (existingCount == 0) {
+					boolean empty = jdbcTemplate.queryForList("SELECT 1 FROM customers LIMIT 1", Integer.class).isEmpty();
+					if (empty) {
 						log.info("Table created but empty. Adding sample data...");
 						
 						// Add sample data
@@ -88,9 +94,10 @@ public class RelationalDataAccessApplication implements CommandLineRunner {
 								.collect(Collectors.toList());
 
 						jdbcTemplate.batchUpdate("INSERT INTO customers(first_name, last_name) VALUES (?,?)", splitUpNames);
+						customerVersion.bump();
 						log.info("Sample data added: {} customers", splitUpNames.size());
 					} else {
-						log.info("Table exists with {} existing customers", existingCount);
+						log.info("Table exists with existing customers");
 					}
 				} catch (Exception createException) {
 					log.error("Failed to create table or add data: {}", createException.getMessage());
@@ -113,6 +120,8 @@ public class RelationalDataAccessApplication implements CommandLineRunner {
 
 				// Uses JdbcTemplate's batchUpdate operation to bulk load data
 				jdbcTemplate.batchUpdate("INSERT INTO customers(first_name, last_name) VALUES (?,?)", splitUpNames);
+				// The table was recreated, so ETags issued before the restart must not match
+				customerVersion.bump();
 
 				log.info("Database initialized with {} customers", splitUpNames.size());
 			} catch (Exception e) {
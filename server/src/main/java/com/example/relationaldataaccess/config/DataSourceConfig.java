@@ -0,0 +1,137 @@
+package com.example.relationaldataaccess.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.example.relationaldataaccess.jdbc.ConcurrencyLimitingDataSource;
+import com.example.relationaldataaccess.jdbc.InstrumentedDataSource;
+import com.example.relationaldataaccess.jdbc.ReadWriteRoutingDataSource;
+import com.example.relationaldataaccess.jdbc.StatementListener;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Decorates the auto-configured connection pool. From the outside in:
+ * statement instrumentation, then the concurrency limiter, then read/write routing to the
+ * replicas, then the Hikari pool of the primary.
+ *
+ * The decorators extend {@link org.springframework.jdbc.datasource.DelegatingDataSource}, so
+ * Spring Boot still finds the underlying Hikari pool for health checks and pool metrics.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    // Static so the post-processor is registered before the DataSource bean is created
+    @Bean
+    public static DestructionAwareBeanPostProcessor dataSourceDecorator(Environment environment,
+            ObjectProvider<StatementListener> statementListeners) {
+        return new DestructionAwareBeanPostProcessor() {
+
+            // Spring closes the raw pool on shutdown, not our wrapper; the replica pools are ours to close
+            private final Map<String, ReadWriteRoutingDataSource> routers = new ConcurrentHashMap<>();
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof InstrumentedDataSource
+                        || bean instanceof ConcurrencyLimitingDataSource || bean instanceof ReadWriteRoutingDataSource) {
+                    return bean;
+                }
+                if (environment.getProperty("datasource.replicas.enabled", Boolean.class, false)) {
+                    dataSource = routeReads(environment, dataSource, beanName);
+                    if (dataSource instanceof ReadWriteRoutingDataSource router) {
+                        routers.put(beanName, router);
+                    }
+                }
+                if (environment.getProperty("datasource.concurrency-limit.enabled", Boolean.class, false)) {
+                    dataSource = limitConcurrency(environment, dataSource, beanName);
+                }
+                if (environment.getProperty("datasource.instrumentation.enabled", Boolean.class, true)) {
+                    // Listeners are beans themselves, so resolve them when the first statement runs
+                    dataSource = new InstrumentedDataSource(dataSource,
+                            () -> statementListeners.orderedStream().toList());
+                }
+                return dataSource;
+            }
+
+            @Override
+            public boolean requiresDestruction(Object bean) {
+                return bean instanceof DataSource;
+            }
+
+            @Override
+            public void postProcessBeforeDestruction(Object bean, String beanName) {
+                ReadWriteRoutingDataSource router = routers.remove(beanName);
+                if (router != null) {
+                    router.close();
+                }
+            }
+        };
+    }
+
+    private static DataSource routeReads(Environment environment, DataSource primary, String beanName) {
+        List<String> urls = Arrays.stream(environment.getProperty("datasource.replicas.urls", String[].class, new String[0]))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        if (urls.isEmpty()) {
+            log.warn("datasource.replicas.enabled is set but datasource.replicas.urls is empty; all reads use the primary");
+            return primary;
+        }
+        String username = environment.getProperty("datasource.replicas.username",
+                environment.getProperty("spring.datasource.username", ""));
+        String password = environment.getProperty("datasource.replicas.password",
+                environment.getProperty("spring.datasource.password", ""));
+        int poolSize = environment.getProperty("datasource.replicas.maximum-pool-size", Integer.class, 10);
+        Duration connectionTimeout = environment.getProperty("datasource.replicas.connection-timeout",
+                Duration.class, Duration.ofSeconds(2));
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (i + 1));
+            config.setJdbcUrl(urls.get(i));
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(poolSize);
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setReadOnly(true);
+            // Start even if a replica is down; it is retried when reads are routed to it
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new HikariDataSource(config));
+        }
+
+        ReadWriteRoutingDataSource.Balancing balancing = environment.getProperty("datasource.replicas.balancing",
+                ReadWriteRoutingDataSource.Balancing.class, ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN);
+        Duration retryInterval = environment.getProperty("datasource.replicas.retry-interval",
+                Duration.class, Duration.ofSeconds(10));
+        log.info("Routing reads of DataSource '{}' to {} replica(s) ({}, retry interval {})",
+                beanName, replicas.size(), balancing, retryInterval);
+        return new ReadWriteRoutingDataSource(primary, replicas, balancing, retryInterval);
+    }
+
+    private static DataSource limitConcurrency(Environment environment, DataSource dataSource, String beanName) {
+        int maxConcurrent = environment.getProperty("datasource.concurrency-limit.max-concurrent", Integer.class, 20);
+        int maxWaiting = environment.getProperty("datasource.concurrency-limit.max-waiting", Integer.class, 200);
+        Duration acquireTimeout = environment.getProperty("datasource.concurrency-limit.acquire-timeout",
+                Duration.class, Duration.ofSeconds(2));
+        log.info("Limiting DataSource '{}' to {} concurrent connections ({} waiting, {} timeout)",
+                beanName, maxConcurrent, maxWaiting, acquireTimeout);
+        return new ConcurrencyLimitingDataSource(dataSource, maxConcurrent, maxWaiting, acquireTimeout);
+    }
+}
@@ -2,9 +2,15 @@ package com.example.relationaldataaccess.config;
 
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
@@ -21,7 +27,37 @@ public class OpenApiConfig {
     @Value("${server.port:8080}")
     private String serverPort;
 
+    /**
+     * With {@code startup.lazy-api-docs=true} springdoc's beans are created when the API docs or
+     * Swagger UI are first requested instead of while the application starts. Only Swagger UI's
+     * {@code WebMvcConfigurer} and the properties it reads are still created at startup, since
+     * Spring MVC collects every configurer while building its own configuration.
+     */
     @Bean
+    @ConditionalOnProperty(name = "startup.lazy-api-docs", havingValue = "true")
+    public static BeanFactoryPostProcessor lazyApiDocs() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                // springdoc's configuration is @Lazy(false), so its explicit setting is overridden
+                if (definition instanceof AbstractBeanDefinition beanDefinition && isSpringdoc(beanDefinition)) {
+                    beanDefinition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    static boolean isSpringdoc(BeanDefinition definition) {
+        String className = definition.getBeanClassName();
+        if (className == null && definition instanceof AnnotatedBeanDefinition annotated
+                && annotated.getFactoryMethodMetadata() != null) {
+            className = annotated.getFactoryMethodMetadata().getDeclaringClassName();
+        }
+        return className != null && className.startsWith("org.springdoc.");
+    }
+
+    @Bean
+    @Lazy
     public OpenAPI customerManagementOpenAPI() {
         // Determine the server URL
         String apiServerUrl;
@@ -0,0 +1,39 @@
+package com.example.relationaldataaccess.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.example.relationaldataaccess.web.AdminTokenInterceptor;
+import com.example.relationaldataaccess.web.AdmissionControlInterceptor;
+import com.example.relationaldataaccess.web.ReplicaReadInterceptor;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private AdmissionControlInterceptor admissionControlInterceptor;
+
+    @Autowired
+    private AdminTokenInterceptor adminTokenInterceptor;
+
+    // Only with read replicas enabled
+    @Autowired
+    private ObjectProvider<ReplicaReadInterceptor> replicaReadInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // The event stream and exports are long-lived: they would hold a slot for their whole
+        // lifetime and their duration would read as overload to the adaptive limit. Unpaged lists
+        // and bulk imports are shorter and get a fixed limit of their own (@LongRunning).
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns("/api/customers/**")
+                .excludePathPatterns("/api/customers/events", "/api/customers/export");
+        registry.addInterceptor(adminTokenInterceptor).addPathPatterns("/api/admin/**");
+        replicaReadInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor).addPathPatterns("/api/**"));
+    }
+}
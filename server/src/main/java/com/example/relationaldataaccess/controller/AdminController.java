@@ -0,0 +1,74 @@
+package com.example.relationaldataaccess.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.relationaldataaccess.jdbc.SlowQueryListener;
+import com.example.relationaldataaccess.service.CustomerCache;
+import com.example.relationaldataaccess.service.CustomerNameIndex;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+// Servlet only: AdminTokenInterceptor, which guards it, is a Spring MVC interceptor
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "${cors.allowed-origins:http://localhost:5173,http://localhost:5174}")
+@Tag(name = "Administration", description = "Operational insight into server-side caches, indexes and SQL statements. "
+    + "Requires 'Authorization: Bearer <ADMIN_TOKEN>'; not served when no token is configured")
+public class AdminController {
+
+    @Autowired
+    private CustomerCache customerCache;
+
+    @Autowired
+    private CustomerNameIndex nameIndex;
+
+    @Autowired
+    private SlowQueryListener slowQueries;
+
+    @Operation(
+        summary = "Customer cache statistics",
+        description = "Size, hit/miss counts, hit rate, evictions and load times of the customer-by-ID cache"
+    )
+    @GetMapping("/cache")
+    public Map<String, Object> cacheStats() {
+        return customerCache.stats();
+    }
+
+    @Operation(
+        summary = "Customer name index statistics",
+        description = "Customers and names in the autocomplete index, changes not yet merged into its sorted arrays, and merge count"
+    )
+    @GetMapping("/suggest-index")
+    public Map<String, Object> suggestIndexStats() {
+        return nameIndex.stats();
+    }
+
+    @Operation(
+        summary = "SQL statement statistics",
+        description = "Count, total/mean/max time, rows, errors and slow executions per statement shape, most total time first, with the last sampled plan of slow statements"
+    )
+    @GetMapping("/queries")
+    public List<SlowQueryListener.ShapeStats> queryStats() {
+        return slowQueries.shapes();
+    }
+
+    @Operation(
+        summary = "Recent SQL statements",
+        description = "The most recent statements, newest first: shape, bind count, duration and rows (bound values are not kept)"
+    )
+    @GetMapping("/queries/recent")
+    public List<SlowQueryListener.Recent> recentQueries(@RequestParam(defaultValue = "100") int limit) {
+        return slowQueries.recent(Math.max(0, limit));
+    }
+}
@@ -1,8 +1,24 @@
 package com.example.relationaldataaccess.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -11,11 +27,33 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.example.relationaldataaccess.BulkDeleteJob;
+import com.example.relationaldataaccess.BulkDeleteRequest;
+import com.example.relationaldataaccess.BulkImportResult;
 import com.example.relationaldataaccess.Customer;
+import com.example.relationaldataaccess.CustomerNames;
+import com.example.relationaldataaccess.CustomerPage;
+import com.example.relationaldataaccess.CustomerRowMapper;
+import com.example.relationaldataaccess.service.CustomerBulkDeleteService;
+import com.example.relationaldataaccess.service.CustomerBulkImportService;
+import com.example.relationaldataaccess.service.CustomerChangedEvent;
+import com.example.relationaldataaccess.service.CustomerEventStream;
+import com.example.relationaldataaccess.service.CustomerLookup;
+import com.example.relationaldataaccess.service.CustomerNameIndex;
+import com.example.relationaldataaccess.service.CustomerSearchIndex;
+import com.example.relationaldataaccess.service.CustomerStreamer;
+import com.example.relationaldataaccess.service.CustomerVersion;
+import com.example.relationaldataaccess.service.CustomerWriter;
+import com.example.relationaldataaccess.web.LongRunning;
+import com.example.relationaldataaccess.web.ReplicaRead;
+import com.example.relationaldataaccess.web.ReplicaReadInterceptor;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -25,19 +63,76 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/api/customers")
-@CrossOrigin(origins = "${cors.allowed-origins:http://localhost:5173,http://localhost:5174}")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+// Cross-origin clients cannot send the read-your-writes cookie, so they need to read the header
+@CrossOrigin(origins = "${cors.allowed-origins:http://localhost:5173,http://localhost:5174}",
+        exposedHeaders = ReplicaReadInterceptor.PRIMARY_UNTIL_HEADER)
 @Tag(name = "Customer Management", description = "REST API for managing customer data with full CRUD operations and search functionality")
 public class CustomerController {
 
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private CustomerSearchIndex searchIndex;
+
+    @Autowired
+    private CustomerNameIndex nameIndex;
+
+    @Autowired
+    private CustomerBulkImportService bulkImportService;
+
+    @Autowired
+    private CustomerBulkDeleteService bulkDeleteService;
+
+    @Autowired
+    private CustomerLookup customerLookup;
+
+    @Autowired
+    private CustomerStreamer customerStreamer;
+
+    @Autowired
+    private CustomerWriter customerWriter;
+
+    @Autowired
+    private CustomerVersion customerVersion;
+
+    @Autowired
+    private CustomerEventStream customerEventStream;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${customers.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${customers.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${customers.search.default-limit:50}")
+    private int defaultSearchLimit;
+
+    @Value("${customers.search.max-limit:500}")
+    private int maxSearchLimit;
+
+    @Value("${customers.lookup.max-ids:500}")
+    private int maxLookupIds;
+
+    @Value("${customers.suggest.default-limit:10}")
+    private int defaultSuggestLimit;
+
+    @Value("${customers.suggest.max-limit:50}")
+    private int maxSuggestLimit;
+
     @Operation(
-        summary = "Get all customers", 
-        description = "Retrieve a complete list of all customers in the system, ordered by ID"
+        summary = "List customers",
+        description = "Retrieve customers ordered by ID using keyset pagination. Pass the returned nextCursor "
+            + "(or after=<id>) to fetch the following page. The page size is capped by the server. "
+            + "Set unpaged=true to get the complete list as a plain array (legacy behavior)."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -45,24 +140,95 @@ public class CustomerController {
             description = "Successfully retrieved customers",
             content = @Content(
                 mediaType = "application/json", 
-                schema = @Schema(implementation = Customer.class),
+                schema = @Schema(implementation = CustomerPage.class),
                 examples = @ExampleObject(
-                    name = "Customer list example",
-                    value = "[{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\"},{\"id\":2,\"firstName\":\"Jane\",\"lastName\":\"Smith\"}]"
+                    name = "Customer page example",
+                    value = "{\"items\":[{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\"},{\"id\":2,\"firstName\":\"Jane\",\"lastName\":\"Smith\"}],\"nextCursor\":\"aWQ6Mg\",\"limit\":2}"
                 )
             )
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Not modified: the If-None-Match ETag is still current"
+        ),
+        @ApiResponse(
+            responseCode = "400", 
+            description = "Malformed cursor, too many IDs, or an empty ID"
         )
     })
     @GetMapping
-    public List<Customer> getAllCustomers() {
-        return jdbcTemplate.query(
-                "SELECT id, first_name, last_name FROM customers ORDER BY id",
-                (rs, rowNum) -> new Customer(
-                        rs.getLong("id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name")
-                )
+    @ReplicaRead
+    @LongRunning(param = "unpaged")
+    public ResponseEntity<?> getAllCustomers(
+        @Parameter(description = "Return customers with an ID greater than this value", example = "50")
+        @RequestParam(required = false) Long after,
+        @Parameter(description = "Opaque cursor taken from a previous page's nextCursor; takes precedence over 'after'")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "Maximum number of customers to return; capped at customers.page.max-size", example = "50")
+        @RequestParam(required = false) Integer limit,
+        @Parameter(description = "Also return the total number of customers (runs an extra COUNT query)")
+        @RequestParam(defaultValue = "false") boolean includeTotal,
+        @Parameter(description = "Opt in to the legacy response: every customer as a single JSON array")
+        @RequestParam(defaultValue = "false") boolean unpaged,
+        @Parameter(description = "Return just these customers (comma-separated IDs, at most customers.lookup.max-ids) "
+            + "as a plain array in the given order; unknown IDs are left out", example = "1,2,3")
+        @RequestParam(required = false) List<Long> ids,
+        @Parameter(hidden = true) ServletWebRequest webRequest) throws IOException {
+        if (ids != null) {
+            if (!isValidLookup(ids)) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (notModified(webRequest, "ids", ids.toString())) {
+                return null;
+            }
+            return ResponseEntity.ok(customerLookup.findByIds(ids));
+        }
+
+        if (unpaged) {
+            if (notModified(webRequest, "unpaged")) {
+                return null;
+            }
+            // Streamed row by row so memory does not grow with the table
+            customerStreamer.write(webRequest.getRequest(), webRequest.getResponse(), "SELECT id, first_name, last_name FROM customers ORDER BY id");
+            return null;
+        }
+
+        long afterId = after != null ? after : 0L;
+        if (cursor != null && !cursor.isEmpty()) {
+            Long decoded = CustomerPage.decodeCursor(cursor);
+            if (decoded == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            afterId = decoded;
+        }
+
+        // Enforce the server-side page size bounds
+        int pageSize = limit != null ? limit : defaultPageSize;
+        pageSize = Math.max(1, Math.min(pageSize, maxPageSize));
+
+        if (notModified(webRequest, "page", afterId, pageSize, includeTotal)) {
+            return null;
+        }
+
+        // Fetch one extra row to find out whether there is a next page
+        List<Customer> customers = jdbcTemplate.query(
+                "SELECT id, first_name, last_name FROM customers WHERE id > ? ORDER BY id LIMIT ?",
+                CustomerRowMapper.INSTANCE,
+                afterId,
+                pageSize + 1
         );
+
+        String nextCursor = null;
+        if (customers.size() > pageSize) {
+            customers = customers.subList(0, pageSize);
+            nextCursor = CustomerPage.encodeCursor(customers.get(pageSize - 1).getId());
+        }
+
+        Long total = includeTotal
+                ? jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers", Long.class)
+                : null;
+
+        return ResponseEntity.ok(new CustomerPage(customers, nextCursor, pageSize, total));
     }
 
     @Operation(
@@ -82,30 +248,63 @@ public class CustomerController {
                 )
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Not modified: the If-None-Match ETag is still current"
+        ),
         @ApiResponse(
             responseCode = "404", 
             description = "Customer not found with the specified ID"
         )
     })
     @GetMapping("/{id}")
+    @ReplicaRead
     public ResponseEntity<Customer> getCustomerById(
         @Parameter(description = "Unique identifier of the customer", required = true, example = "1")
-        @PathVariable Long id) {
-        List<Customer> customers = jdbcTemplate.query(
-                "SELECT id, first_name, last_name FROM customers WHERE id = ?",
-                (rs, rowNum) -> new Customer(
-                        rs.getLong("id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name")
-                ),
-                id
-        );
-        
-        if (customers.isEmpty()) {
-            return ResponseEntity.notFound().build();
+        @PathVariable Long id,
+        @Parameter(hidden = true) ServletWebRequest webRequest) {
+        if (notModified(webRequest, "id", id)) {
+            return null;
         }
-        
-        return ResponseEntity.ok(customers.get(0));
+        Optional<Customer> customer = customerLookup.findById(id);
+
+        return customer.map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @Operation(
+        summary = "Get customers by ID",
+        description = "Batch lookup for callers that need many customers at once: the IDs in the body are resolved "
+            + "with one query (cached customers are not queried at all). Returns the customers found, each once, "
+            + "in the order of the IDs; unknown IDs are left out. Same as GET /api/customers?ids=..."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Customers found"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "More than customers.lookup.max-ids IDs, or a null ID"
+        )
+    })
+    @PostMapping("/lookup")
+    @ReplicaRead
+    public ResponseEntity<List<Customer>> lookupCustomers(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Customer IDs",
+            content = @Content(examples = @ExampleObject(value = "[1, 2, 3]"))
+        )
+        @RequestBody List<Long> ids) {
+        if (!isValidLookup(ids)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(customerLookup.findByIds(ids));
+    }
+
+    // Nulls come from JSON nulls or empty list items such as ?ids=1,,2; the cache cannot take them as keys
+    private boolean isValidLookup(List<Long> ids) {
+        return ids.size() <= maxLookupIds && ids.stream().noneMatch(Objects::isNull);
     }
 
     @Operation(
@@ -163,36 +362,47 @@ public class CustomerController {
         }
         
         // Sanitize input: remove dangerous characters and limit length
-        firstName = firstName.trim()
-                .replaceAll("[<>\"'%;()&+]", "")
-                .substring(0, Math.min(firstName.trim().length(), 50));
-        lastName = lastName.trim()
-                .replaceAll("[<>\"'%;()&+]", "")
-                .substring(0, Math.min(lastName.trim().length(), 50));
+        firstName = CustomerNames.sanitize(firstName);
+        lastName = CustomerNames.sanitize(lastName);
         
         if (firstName.isEmpty() || lastName.isEmpty()) {
             throw new IllegalArgumentException("Names cannot be empty after sanitization");
         }
         
-        jdbcTemplate.update(
-                "INSERT INTO customers(first_name, last_name) VALUES (?, ?)",
-                firstName,
-                lastName
-        );
-        
-        // Get the newly created customer
-        List<Customer> customers = jdbcTemplate.query(
-                "SELECT id, first_name, last_name FROM customers WHERE first_name = ? AND last_name = ? ORDER BY id DESC LIMIT 1",
-                (rs, rowNum) -> new Customer(
-                        rs.getLong("id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name")
-                ),
-                firstName,
-                lastName
-        );
-        
-        return customers.get(0);
+        // The generated ID comes back with the INSERT (possibly group-committed with other creates)
+        return customerWriter.create(firstName, lastName);
+    }
+
+    @Operation(
+        summary = "Bulk import customers",
+        description = "Stream many customers in one request as NDJSON (one {\"firstName\",\"lastName\"} object per line) "
+            + "or CSV (firstName,lastName with an optional header row). The body is parsed as a stream and inserted in "
+            + "batches; every row is sanitized like a single create. Invalid rows are skipped and reported."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Import finished; see the summary for rejected rows",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = BulkImportResult.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "415",
+            description = "Content type is neither application/x-ndjson nor text/csv",
+            content = @Content
+        )
+    })
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    @LongRunning
+    public BulkImportResult bulkImportCustomers(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body) throws IOException {
+        String format = "csv".equals(contentType.getSubtype())
+                ? CustomerBulkImportService.FORMAT_CSV
+                : CustomerBulkImportService.FORMAT_NDJSON;
+        return bulkImportService.importCustomers(body, format);
     }
 
     @DeleteMapping("/{id}")
@@ -221,37 +431,262 @@ public class CustomerController {
         int rowsAffected = jdbcTemplate.update("DELETE FROM customers WHERE id = ?", id);
         
         if (rowsAffected > 0) {
+            eventPublisher.publishEvent(CustomerChangedEvent.deleted(List.of(id)));
             return ResponseEntity.ok().build();
         }
         
         return ResponseEntity.notFound().build();
     }
 
+    @Operation(
+        summary = "Delete many customers",
+        description = "Starts a background job that deletes the given IDs, or every customer matching the filter, "
+            + "in chunks of customers.delete.chunk-size, each in its own short transaction. Caches, indexes, ETags "
+            + "and the event stream are updated after every chunk. Poll the returned job for progress."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Job accepted; its URL is in the Location header",
+            content = @Content(schema = @Schema(implementation = BulkDeleteJob.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Neither IDs nor a filter given, or too many IDs",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "customers.delete.max-queued-jobs jobs are already waiting on this instance",
+            content = @Content
+        )
+    })
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkDeleteJob> startBulkDelete(@RequestBody BulkDeleteRequest request) {
+        BulkDeleteJob job;
+        try {
+            job = bulkDeleteService.submit(request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/customers/bulk-delete/" + job.getId()))
+                .body(job);
+    }
+
+    @Operation(
+        summary = "Bulk delete progress",
+        description = "State and number of customers deleted so far of a bulk delete job"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Job status"),
+        @ApiResponse(responseCode = "404", description = "Unknown job, or finished too long ago", content = @Content)
+    })
+    @GetMapping("/bulk-delete/{jobId}")
+    public ResponseEntity<BulkDeleteJob> getBulkDelete(@PathVariable String jobId) {
+        return ResponseEntity.of(bulkDeleteService.get(jobId));
+    }
+
+    @Operation(
+        summary = "Cancel a bulk delete",
+        description = "Stops the job after the chunk in progress; customers deleted until then stay deleted"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cancellation requested; poll the job until it is CANCELLED"),
+        @ApiResponse(responseCode = "404", description = "Unknown job", content = @Content)
+    })
+    @DeleteMapping("/bulk-delete/{jobId}")
+    public ResponseEntity<BulkDeleteJob> cancelBulkDelete(@PathVariable String jobId) {
+        return ResponseEntity.of(bulkDeleteService.cancel(jobId));
+    }
+
+    @Operation(
+        summary = "Stream customer changes",
+        description = "Server-Sent Events feed of customer changes: 'created' events carry the new customers, "
+            + "'deleted' events their IDs. Reconnect with the Last-Event-ID header to receive the events missed "
+            + "in between; a 'reset' event means they are no longer available and the list should be reloaded. "
+            + "Clients that fall too far behind are disconnected."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Event stream",
+            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+        )
+    })
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCustomerEvents(
+        @Parameter(description = "ID of the last event received, to resume after a reconnect")
+        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return customerEventStream.subscribe(lastEventId);
+    }
+
+    @Operation(
+        summary = "Search customers by name",
+        description = "Case-insensitive substring search on first and last name. Results are ordered by relevance "
+            + "(exact name, then prefix, then substring matches; ties by ID) and capped by 'limit'. Served from an "
+            + "in-memory index; names shorter than 3 characters, and all names while the index is disabled or "
+            + "loading, are looked up in the database and results are ordered by ID."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Matching customers"
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Not modified: the If-None-Match ETag is still current"
+        )
+    })
     @GetMapping("/search")
-    public List<Customer> searchCustomers(@RequestParam String name) {
+    @ReplicaRead
+    public ResponseEntity<?> searchCustomers(
+        @Parameter(description = "Text to look for in first or last name", required = true, example = "jo")
+        @RequestParam String name,
+        @Parameter(description = "Maximum number of results; capped at customers.search.max-limit", example = "50")
+        @RequestParam(required = false) Integer limit,
+        @Parameter(hidden = true) ServletWebRequest webRequest) throws IOException {
         // Input validation and sanitization
         if (name == null || name.trim().isEmpty()) {
-            return List.of(); // Return empty list for invalid input
+            return ResponseEntity.ok(List.of()); // Return empty list for invalid input
         }
         
         // Sanitize input: remove potentially dangerous characters and limit length
-        String sanitizedName = name.trim()
-                .replaceAll("[<>\"'%;()&+]", "") // Remove potential SQL injection characters
-                .substring(0, Math.min(name.trim().length(), 50)); // Limit to 50 characters
+        String sanitizedName = CustomerNames.sanitize(name);
         
         if (sanitizedName.isEmpty()) {
-            return List.of(); // Return empty list if nothing remains after sanitization
+            return ResponseEntity.ok(List.of()); // Return empty list if nothing remains after sanitization
         }
-        
-        return jdbcTemplate.query(
-                "SELECT id, first_name, last_name FROM customers WHERE first_name ILIKE ? OR last_name ILIKE ? ORDER BY id",
-                (rs, rowNum) -> new Customer(
-                        rs.getLong("id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name")
-                ),
-                "%" + sanitizedName + "%",
-                "%" + sanitizedName + "%"
+
+        int maxResults = limit != null ? limit : defaultSearchLimit;
+        maxResults = Math.max(1, Math.min(maxResults, maxSearchLimit));
+
+        if (notModified(webRequest, "search", sanitizedName, maxResults)) {
+            return null;
+        }
+
+        if (searchIndex.canSearch(sanitizedName)) {
+            return ResponseEntity.ok(searchIndex.search(sanitizedName, maxResults));
+        }
+
+        // Index disabled or still loading, or a query too short for it: fall back to an ILIKE scan,
+        // streamed from the result set
+        customerStreamer.write(webRequest.getRequest(), webRequest.getResponse(),
+                "SELECT id, first_name, last_name FROM customers "
+                        + "WHERE first_name ILIKE ? ESCAPE '\\' OR last_name ILIKE ? ESCAPE '\\' ORDER BY id LIMIT ?",
+                "%" + CustomerNames.escapeLike(sanitizedName) + "%",
+                "%" + CustomerNames.escapeLike(sanitizedName) + "%",
+                maxResults
+        );
+        return null;
+    }
+
+    @Operation(
+        summary = "Suggest customers by name prefix",
+        description = "Autocomplete: customers whose first or last name starts with 'prefix', ignoring case, "
+            + "in alphabetical order of the matching name and capped by 'limit'. Served from an in-memory "
+            + "index; while it is disabled or loading, the database is queried and results are ordered by ID."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Matching customers"
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Not modified: the If-None-Match ETag is still current"
+        )
+    })
+    @GetMapping("/suggest")
+    @ReplicaRead
+    public ResponseEntity<?> suggestCustomers(
+        @Parameter(description = "Start of a first or last name", required = true, example = "jo")
+        @RequestParam String prefix,
+        @Parameter(description = "Maximum number of suggestions; capped at customers.suggest.max-limit", example = "10")
+        @RequestParam(required = false) Integer limit,
+        @Parameter(hidden = true) ServletWebRequest webRequest) throws IOException {
+        String sanitizedPrefix = CustomerNames.sanitize(prefix);
+        if (sanitizedPrefix.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+
+        int maxResults = limit != null ? limit : defaultSuggestLimit;
+        maxResults = Math.max(1, Math.min(maxResults, maxSuggestLimit));
+
+        if (notModified(webRequest, "suggest", sanitizedPrefix, maxResults)) {
+            return null;
+        }
+
+        if (nameIndex.isReady()) {
+            return ResponseEntity.ok(nameIndex.suggest(sanitizedPrefix, maxResults));
+        }
+
+        customerStreamer.write(webRequest.getRequest(), webRequest.getResponse(),
+                "SELECT id, first_name, last_name FROM customers "
+                        + "WHERE first_name ILIKE ? ESCAPE '\\' OR last_name ILIKE ? ESCAPE '\\' ORDER BY id LIMIT ?",
+                CustomerNames.escapeLike(sanitizedPrefix) + "%",
+                CustomerNames.escapeLike(sanitizedPrefix) + "%",
+                maxResults
         );
+        return null;
+    }
+
+    @Operation(
+        summary = "Export all customers",
+        description = "Streams every customer in ID order as CSV or NDJSON, read through a database cursor so "
+            + "memory use does not depend on the table size. The body is sent chunked as it is produced, "
+            + "gzip-compressed for clients that accept it. To resume an interrupted export, pass the last ID "
+            + "received as 'after'."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Customers, one per line",
+            content = {
+                @Content(mediaType = "text/csv"),
+                @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE)
+            }
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Unknown format"
+        )
+    })
+    @GetMapping("/export")
+    @ReplicaRead
+    public ResponseEntity<?> exportCustomers(
+        @Parameter(description = "Output format: csv or ndjson", example = "csv")
+        @RequestParam(defaultValue = "csv") String format,
+        @Parameter(description = "Export only customers with an ID greater than this value", example = "0")
+        @RequestParam(defaultValue = "0") long after,
+        @Parameter(hidden = true) HttpServletResponse response) throws IOException {
+        MediaType mediaType = CustomerStreamer.EXPORT_FORMATS.get(format.toLowerCase(Locale.ROOT));
+        if (mediaType == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        response.setContentType(mediaType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("customers." + format.toLowerCase(Locale.ROOT)).build().toString());
+        customerStreamer.export(response.getOutputStream(), mediaType, after);
+        return null;
+    }
+
+    /**
+     * Sets a weak ETag derived from the customer change version of this instance and
+     * returns true, with the response already set to 304, if the client's copy is still current.
+     */
+    private boolean notModified(ServletWebRequest webRequest, Object... variant) {
+        // JSON, CBOR and Smile are separate representations with separate ETags
+        webRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (!customerVersion.isEnabled()) {
+            return false;
+        }
+        Object[] formatVariant = Arrays.copyOf(variant, variant.length + 1);
+        formatVariant[variant.length] = customerStreamer.negotiate(webRequest.getRequest()).toString();
+        // Let browsers keep the response but revalidate it on every use
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        return webRequest.checkNotModified(customerVersion.etag(formatVariant));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,249 @@
+package com.example.relationaldataaccess.jdbc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Times every statement executed through the target DataSource and counts the rows it read or
+ * changed, then hands the result to the registered {@link StatementListener}s.
+ *
+ * Connections, statements and result sets are wrapped in JDK proxies. For queries the
+ * measurement ends when the result set (or its statement) is closed, so it includes fetching
+ * the rows, which matters for cursor-based reads.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(InstrumentedDataSource.class);
+
+    private final Supplier<List<StatementListener>> listenerSupplier;
+    private volatile List<StatementListener> listeners;
+
+    /**
+     * @param listenerSupplier resolved on first use, so listeners may be beans that are
+     *        created after the DataSource
+     */
+    public InstrumentedDataSource(DataSource target, Supplier<List<StatementListener>> listenerSupplier) {
+        super(target);
+        this.listenerSupplier = listenerSupplier;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(method, connection, args);
+                    if (result instanceof Statement statement) {
+                        String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                        return wrapStatement(statement, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement wrapStatement(Statement statement, String preparedSql) {
+        Class<?>[] interfaces = statementInterfaces(statement);
+        StatementState state = new StatementState(preparedSql);
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), interfaces,
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "executeQuery": {
+                            state.finishQuery();
+                            String sql = args != null && args.length > 0 ? (String) args[0] : preparedSql;
+                            long start = System.nanoTime();
+                            ResultSet resultSet;
+                            try {
+                                resultSet = (ResultSet) invoke(method, statement, args);
+                            } catch (Throwable e) {
+                                publish(sql, System.nanoTime() - start, -1, true, state);
+                                throw e;
+                            }
+                            return state.startQuery(sql, start, resultSet);
+                        }
+                        case "executeUpdate":
+                        case "executeLargeUpdate":
+                        case "execute":
+                        case "executeBatch":
+                        case "executeLargeBatch": {
+                            state.finishQuery();
+                            String sql = args != null && args.length > 0 && args[0] instanceof String text
+                                    ? text : preparedSql;
+                            long start = System.nanoTime();
+                            Object result;
+                            try {
+                                result = invoke(method, statement, args);
+                            } catch (Throwable e) {
+                                publish(sql, System.nanoTime() - start, -1, true, state);
+                                throw e;
+                            }
+                            publish(sql, System.nanoTime() - start, affectedRows(statement, result), false, state);
+                            return result;
+                        }
+                        case "close":
+                            state.finishQuery();
+                            return invoke(method, statement, args);
+                        default:
+                            // setInt(1, ...), setString(2, ...), setNull(3, type), ...
+                            if (preparedSql != null && args != null && args.length >= 2
+                                    && args[0] instanceof Integer index && method.getName().startsWith("set")) {
+                                state.bind(index, method.getName().equals("setNull") ? null : args[1]);
+                            }
+                            return invoke(method, statement, args);
+                    }
+                });
+    }
+
+    private static Class<?>[] statementInterfaces(Statement statement) {
+        if (statement instanceof CallableStatement) {
+            return new Class<?>[] {CallableStatement.class};
+        }
+        if (statement instanceof PreparedStatement) {
+            return new Class<?>[] {PreparedStatement.class};
+        }
+        return new Class<?>[] {Statement.class};
+    }
+
+    private static long affectedRows(Statement statement, Object result) throws SQLException {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        if (result instanceof long[] counts) {
+            long total = 0;
+            for (long count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        // execute(): a result set produces no update count
+        return Boolean.FALSE.equals(result) ? statement.getUpdateCount() : -1;
+    }
+
+    private void publish(String sql, long durationNanos, long rows, boolean failed, StatementState state) {
+        if (sql == null) {
+            return;
+        }
+        List<StatementListener> current = listeners;
+        if (current == null) {
+            current = listenerSupplier.get();
+            listeners = current;
+        }
+        if (current.isEmpty()) {
+            return;
+        }
+        StatementExecution execution = new StatementExecution(sql, SqlShape.of(sql), durationNanos, rows, failed,
+                state.binds, state.parameters);
+        for (StatementListener listener : current) {
+            try {
+                listener.afterExecution(execution);
+            } catch (RuntimeException e) {
+                log.warn("Statement listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Tracks the query whose result set is currently open on one statement.
+     */
+    private final class StatementState {
+
+        private final String preparedSql;
+        private String sql;
+        private long start;
+        private long rows;
+        private boolean open;
+        private int binds;
+        private Object[] parameters;
+
+        StatementState(String preparedSql) {
+            this.preparedSql = preparedSql;
+        }
+
+        void bind(int index, Object value) {
+            if (index < 1) {
+                return;
+            }
+            if (parameters == null || parameters.length < index) {
+                parameters = parameters == null ? new Object[Math.max(index, 4)]
+                        : Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+            binds = Math.max(binds, index);
+        }
+
+        ResultSet startQuery(String sql, long start, ResultSet resultSet) {
+            this.sql = sql != null ? sql : preparedSql;
+            this.start = start;
+            this.rows = 0;
+            this.open = true;
+            return (ResultSet) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+                    new Class<?>[] {ResultSet.class},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("next")) {
+                            Object hasRow = invoke(method, resultSet, args);
+                            if (Boolean.TRUE.equals(hasRow)) {
+                                rows++;
+                            }
+                            return hasRow;
+                        }
+                        if (name.equals("close")) {
+                            try {
+                                return invoke(method, resultSet, args);
+                            } finally {
+                                finishQuery();
+                            }
+                        }
+                        return invoke(method, resultSet, args);
+                    });
+        }
+
+        void finishQuery() {
+            if (open) {
+                open = false;
+                publish(sql, System.nanoTime() - start, rows, false, this);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.relationaldataaccess.jdbc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes statement timings ({@code jdbc.statement}) and row counts
+ * ({@code jdbc.statement.rows}) per statement shape to Micrometer.
+ */
+@Component
+public class JdbcMetricsListener implements StatementListener {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Meter lookups by shape and outcome, so the hot path does not rebuild meter IDs
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterExecution(StatementExecution execution) {
+        String outcome = execution.failed() ? "error" : "success";
+        Meters statementMeters = meters.computeIfAbsent(outcome + '|' + execution.shape(),
+                key -> register(execution.shape(), execution.operation(), outcome));
+        statementMeters.timer().record(execution.durationNanos(), TimeUnit.NANOSECONDS);
+        if (execution.rows() >= 0) {
+            statementMeters.rows().record(execution.rows());
+        }
+    }
+
+    private Meters register(String shape, String operation, String outcome) {
+        Timer timer = Timer.builder("jdbc.statement")
+                .description("Execution time of JDBC statements, including reading their result sets")
+                .tag("sql", shape)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+        DistributionSummary rows = DistributionSummary.builder("jdbc.statement.rows")
+                .description("Rows read or affected by JDBC statements")
+                .baseUnit("rows")
+                .tag("sql", shape)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+        return new Meters(timer, rows);
+    }
+
+    private record Meters(Timer timer, DistributionSummary rows) {}
+}
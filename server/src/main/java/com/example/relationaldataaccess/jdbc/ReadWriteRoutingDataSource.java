@@ -0,0 +1,192 @@
+package com.example.relationaldataaccess.jdbc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Sends connections requested under {@link ReplicaRoute} to a read replica and everything else
+ * to the primary (the target).
+ *
+ * Replicas are picked round-robin or by fewest connections currently handed out, once per
+ * {@link ReplicaRoute} mark; later connections under the same mark reuse that replica. A replica
+ * that fails to produce a connection is skipped for {@code retryInterval} and the request goes
+ * to the next replica, or to the primary when none is left, so an unhealthy replica costs at
+ * most one failed connection attempt per interval.
+ */
+public class ReadWriteRoutingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    public enum Balancing {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Balancing balancing;
+    private final long retryIntervalNanos;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Balancing balancing,
+            Duration retryInterval) {
+        super(primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + (i + 1), replicas.get(i)));
+        }
+        this.balancing = balancing;
+        this.retryIntervalNanos = retryInterval.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReplicaRoute.isActive()) {
+            Connection connection = replicaConnection();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return super.getConnection();
+    }
+
+    /**
+     * Closes the replica pools; the primary belongs to whoever created it.
+     */
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Could not close read replica {}: {}", replica.name(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Names of the replicas currently considered healthy.
+     */
+    public List<String> getHealthyReplicas() {
+        long now = System.nanoTime();
+        return replicas.stream().filter(replica -> replica.isAvailable(now)).map(Replica::name).toList();
+    }
+
+    private Connection replicaConnection() {
+        List<Replica> tried = new ArrayList<>(replicas.size());
+        if (ReplicaRoute.pinned() instanceof Replica pinned && replicas.contains(pinned)
+                && pinned.isAvailable(System.nanoTime())) {
+            try {
+                return pinned.connect();
+            } catch (SQLException | RuntimeException e) {
+                pinned.markDown(e);
+                tried.add(pinned);
+            }
+        }
+        Replica replica;
+        while ((replica = choose(tried)) != null) {
+            try {
+                Connection connection = replica.connect();
+                ReplicaRoute.pin(replica);
+                return connection;
+            } catch (SQLException | RuntimeException e) {
+                replica.markDown(e);
+                tried.add(replica);
+            }
+        }
+        return null;
+    }
+
+    private Replica choose(List<Replica> tried) {
+        long now = System.nanoTime();
+        List<Replica> candidates = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.isAvailable(now) && !tried.contains(replica)) {
+                candidates.add(replica);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), candidates.size());
+        if (balancing == Balancing.ROUND_ROBIN) {
+            return candidates.get(start);
+        }
+        // Fewest connections in use; the rotating start spreads ties
+        Replica best = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            Replica candidate = candidates.get((start + i) % candidates.size());
+            if (best == null || candidate.active.get() < best.active.get()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final AtomicInteger active = new AtomicInteger();
+        private volatile long downUntil;
+        private volatile boolean down;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        String name() {
+            return name;
+        }
+
+        boolean isAvailable(long now) {
+            return !down || now - downUntil >= 0;
+        }
+
+        Connection connect() throws SQLException {
+            Connection connection = dataSource.getConnection();
+            if (down) {
+                down = false;
+                log.info("Read replica {} is available again", name);
+            }
+            active.incrementAndGet();
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(
+                    ReadWriteRoutingDataSource.class.getClassLoader(),
+                    new Class<?>[] {Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                            active.decrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+
+        void markDown(Exception cause) {
+            downUntil = System.nanoTime() + retryIntervalNanos;
+            if (!down) {
+                down = true;
+                log.warn("Read replica {} is unavailable, using the primary for {} ms: {}",
+                        name, retryIntervalNanos / 1_000_000, cause.getMessage());
+            }
+        }
+    }
+}
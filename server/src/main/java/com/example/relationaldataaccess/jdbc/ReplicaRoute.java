@@ -0,0 +1,40 @@
+package com.example.relationaldataaccess.jdbc;
+
+/**
+ * Marks the current thread's connections as eligible for a read replica.
+ *
+ * Set around read-only work (see {@code ReplicaReadInterceptor}); everything else, including
+ * any code that runs without the mark, uses the primary. All connections taken under one mark
+ * go to the same replica, so the reads of one request see one consistent (if lagging) copy.
+ */
+public final class ReplicaRoute {
+
+    // Holds the replica picked for the current mark, once one has been
+    private static final ThreadLocal<Object[]> REPLICA = new ThreadLocal<>();
+
+    private ReplicaRoute() {}
+
+    public static void enter() {
+        REPLICA.set(new Object[1]);
+    }
+
+    public static void exit() {
+        REPLICA.remove();
+    }
+
+    public static boolean isActive() {
+        return REPLICA.get() != null;
+    }
+
+    static Object pinned() {
+        Object[] route = REPLICA.get();
+        return route != null ? route[0] : null;
+    }
+
+    static void pin(Object replica) {
+        Object[] route = REPLICA.get();
+        if (route != null) {
+            route[0] = replica;
+        }
+    }
+}
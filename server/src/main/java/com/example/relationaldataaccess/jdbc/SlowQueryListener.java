@@ -0,0 +1,302 @@
+package com.example.relationaldataaccess.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the most recent statements and per-shape totals in memory, and samples execution plans
+ * of slow statements.
+ *
+ * Every statement is written to a ring of the last {@code datasource.statements.ring-size}
+ * executions (shape, bind count, duration, rows; never the bound values) and added to lock-free
+ * counters for its shape, so the cost per statement is one small allocation and a few atomic
+ * adds. Statements taking {@code datasource.slow-queries.threshold} or longer are counted as slow,
+ * and at most once per shape per {@code explain.min-interval} one of them is logged and explained
+ * again, with its original bind values, on a background thread. Plans are sampled on the
+ * primary; when the explain queue is full a sample is skipped rather than slowing the caller.
+ *
+ * {@code EXPLAIN ANALYZE} ({@code (ANALYZE, BUFFERS)} on PostgreSQL) runs the statement once more,
+ * so it is only used for plain {@code SELECT}s that end in a row limit of the outermost query and
+ * have no locking clause. Everything
+ * else (writes, {@code WITH} statements that may contain writes, {@code FOR UPDATE}/{@code SHARE}
+ * reads, unbounded reads such as exports) only gets a plain {@code EXPLAIN} and never runs twice.
+ */
+@Component
+public class SlowQueryListener implements StatementListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryListener.class);
+
+    // Statement kinds worth explaining; DDL and the EXPLAIN statements themselves are not
+    private static final List<String> EXPLAINABLE = List.of("select", "with", "insert", "update", "delete");
+
+    private static final Pattern LOCKING_CLAUSE =
+            Pattern.compile("\\bFOR\\s+(UPDATE|NO\\s+KEY\\s+UPDATE|SHARE|KEY\\s+SHARE)\\b", Pattern.CASE_INSENSITIVE);
+    // A limit ending the statement, matched against its top level only (see topLevel): a LIMIT in a
+    // subquery or CTE does not bound what the statement as a whole reads
+    private static final Pattern ROW_LIMIT = Pattern.compile(
+            "\\b(LIMIT\\s+(\\?|\\d+)(\\s+OFFSET\\s+(\\?|\\d+))?"
+                    + "|(OFFSET\\s+(\\?|\\d+)\\s+(ROWS?\\s+)?)?(LIMIT\\s+(\\?|\\d+)|FETCH\\s+(FIRST|NEXT)\\s+(\\?|\\d+)?\\s*ROWS?\\s+ONLY))"
+                    + "\\s*;?\\s*$",
+            Pattern.CASE_INSENSITIVE);
+
+    // Resolved on first use: the DataSource is created before its listeners are
+    @Autowired
+    @Lazy
+    private DataSource dataSource;
+
+    @Value("${datasource.statements.ring-size:1024}")
+    private int ringSize = 1024;
+
+    @Value("${datasource.slow-queries.threshold:200ms}")
+    private Duration threshold = Duration.ofMillis(200);
+
+    @Value("${datasource.slow-queries.explain.enabled:true}")
+    private boolean explainEnabled = true;
+
+    @Value("${datasource.slow-queries.explain.min-interval:10m}")
+    private Duration explainInterval = Duration.ofMinutes(10);
+
+    @Value("${datasource.slow-queries.explain.timeout:10s}")
+    private Duration explainTimeout = Duration.ofSeconds(10);
+
+    private AtomicReferenceArray<Recent> ring;
+    private int mask;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, ShapeTotals> shapes = new ConcurrentHashMap<>();
+    private long thresholdNanos;
+    private ThreadPoolExecutor explainer;
+    private volatile String database;
+
+    @PostConstruct
+    public void init() {
+        // A power of two, so the slot is the sequence number masked
+        int size = Integer.highestOneBit(Math.max(2, ringSize - 1)) << 1;
+        ring = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+        thresholdNanos = threshold.toNanos();
+        explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void close() {
+        explainer.shutdownNow();
+    }
+
+    @Override
+    public void afterExecution(StatementExecution execution) {
+        String operation = execution.operation();
+        if (operation.equals("explain")) {
+            return;
+        }
+        long durationNanos = execution.durationNanos();
+        boolean slow = durationNanos >= thresholdNanos;
+        long seq = sequence.getAndIncrement();
+        ring.lazySet((int) seq & mask, new Recent(seq, System.currentTimeMillis(), execution.shape(),
+                execution.binds(), durationNanos, execution.rows(), execution.failed(), slow));
+
+        ShapeTotals totals = shapes.computeIfAbsent(execution.shape(), ShapeTotals::new);
+        totals.count.increment();
+        totals.totalNanos.add(durationNanos);
+        totals.maxNanos.accumulate(durationNanos);
+        if (execution.rows() > 0) {
+            totals.rows.add(execution.rows());
+        }
+        if (execution.failed()) {
+            totals.errors.increment();
+        } else if (slow) {
+            totals.slow.increment();
+            sample(totals, execution, operation);
+        }
+    }
+
+    /**
+     * The last {@code limit} statements, newest first.
+     */
+    public List<Recent> recent(int limit) {
+        long last = sequence.get() - 1;
+        int count = (int) Math.min(Math.min(limit, ring.length()), last + 1);
+        List<Recent> result = new ArrayList<>(Math.max(count, 0));
+        for (long seq = last; seq > last - count; seq--) {
+            Recent recent = ring.get((int) seq & mask);
+            // Skip slots not written yet or already overwritten by a newer statement
+            if (recent != null && recent.seq() == seq) {
+                result.add(recent);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Totals per statement shape, the shape with the most time spent first.
+     */
+    public List<ShapeStats> shapes() {
+        List<ShapeStats> result = new ArrayList<>(shapes.size());
+        for (ShapeTotals totals : shapes.values()) {
+            result.add(totals.snapshot());
+        }
+        result.sort(Comparator.comparingDouble(ShapeStats::totalMillis).reversed());
+        return result;
+    }
+
+    private void sample(ShapeTotals totals, StatementExecution execution, String operation) {
+        long now = System.nanoTime();
+        long last = totals.lastSampleNanos.get();
+        if (last != 0 && now - last < explainInterval.toNanos() || !totals.lastSampleNanos.compareAndSet(last, now)) {
+            return;
+        }
+        String sql = execution.sql();
+        long durationMillis = execution.durationNanos() / 1_000_000;
+        log.warn("Slow statement ({} ms, {} rows, {} binds): {}", durationMillis, execution.rows(),
+                execution.binds(), execution.shape());
+        if (!explainEnabled || !EXPLAINABLE.contains(operation)) {
+            return;
+        }
+        // The statement reuses its parameter array, so take a copy while it is still ours
+        Object[] parameters = execution.parameters() == null ? new Object[0]
+                : Arrays.copyOf(execution.parameters(), execution.binds());
+        explainer.execute(() -> {
+            try {
+                totals.plan = explain(sql, operation, parameters);
+                totals.planAt = Instant.now();
+                log.info("Plan for slow statement {}:\n{}", execution.shape(), totals.plan);
+            } catch (SQLException | RuntimeException e) {
+                log.debug("Could not explain {}: {}", execution.shape(), e.getMessage());
+            }
+        });
+    }
+
+    private String explain(String sql, String operation, Object[] parameters) throws SQLException {
+        try (Connection con = dataSource.getConnection()) {
+            if (database == null) {
+                database = con.getMetaData().getDatabaseProductName();
+            }
+            try (PreparedStatement ps = con.prepareStatement(explainPrefix(database, operation, sql) + sql)) {
+                ps.setQueryTimeout((int) Math.max(1, explainTimeout.toSeconds()));
+                for (int i = 0; i < parameters.length; i++) {
+                    ps.setObject(i + 1, parameters[i]);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        if (plan.length() > 0) {
+                            plan.append('\n');
+                        }
+                        plan.append(rs.getString(1));
+                    }
+                }
+                return plan.toString();
+            }
+        }
+    }
+
+    static String explainPrefix(String database, String operation, String sql) {
+        boolean analyze = operation.equals("select")
+                && !LOCKING_CLAUSE.matcher(sql).find()
+                && ROW_LIMIT.matcher(topLevel(sql)).find();
+        if (!analyze) {
+            return "EXPLAIN ";
+        }
+        return "PostgreSQL".equals(database) ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ANALYZE ";
+    }
+
+    /**
+     * The statement without anything inside parentheses or quotes, so that only clauses of the
+     * outermost query remain.
+     */
+    static String topLevel(String sql) {
+        StringBuilder result = new StringBuilder(sql.length());
+        int depth = 0;
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+                if (depth == 0) {
+                    result.append("()");
+                }
+            } else if (depth == 0) {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * One executed statement as kept in the ring.
+     */
+    public record Recent(long seq, long timestamp, String shape, int binds, long durationNanos, long rows,
+            boolean failed, boolean slow) {}
+
+    /**
+     * Totals for one statement shape, with its most recently sampled plan if any.
+     */
+    public record ShapeStats(String shape, long count, double totalMillis, double meanMillis, double maxMillis,
+            long rows, long errors, long slow, String plan, Instant planAt) {}
+
+    private static final class ShapeTotals {
+
+        private final String shape;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private final AtomicLong lastSampleNanos = new AtomicLong();
+        private volatile String plan;
+        private volatile Instant planAt;
+
+        ShapeTotals(String shape) {
+            this.shape = shape;
+        }
+
+        ShapeStats snapshot() {
+            long n = count.sum();
+            double total = totalNanos.sum() / 1e6;
+            return new ShapeStats(shape, n, total, n == 0 ? 0 : total / n, maxNanos.get() / 1e6, rows.sum(),
+                    errors.sum(), slow.sum(), plan, planAt);
+        }
+    }
+}
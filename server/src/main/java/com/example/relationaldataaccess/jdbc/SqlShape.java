@@ -0,0 +1,74 @@
+package com.example.relationaldataaccess.jdbc;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes SQL text into a bounded set of statement shapes used as metric tags.
+ *
+ * Whitespace is collapsed, literals are replaced by {@code ?} and repeated value groups
+ * ({@code VALUES (?, ?), (?, ?), ...}) are folded into one, so a multi-row insert has the same
+ * shape whatever its row count. The number of distinct shapes is capped; anything beyond the
+ * cap is reported as {@link #OTHER}.
+ *
+ * The shapes of the first {@code MAX_CACHED_SQL} SQL texts are cached, so the statements an
+ * application prepares over and over are normalized once. Texts beyond that (typically SQL with
+ * inline literals) are normalized on every call, and looked up in the set of known shapes.
+ */
+public final class SqlShape {
+
+    public static final String OTHER = "other";
+
+    private static final int MAX_SHAPES = 500;
+    private static final int MAX_CACHED_SQL = 2000;
+    private static final int MAX_LENGTH = 200;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern REPEATED_GROUPS = Pattern.compile("(\\([?, ]+\\))(?:\\s*,\\s*\\([?, ]+\\))+");
+
+    // SQL text to its shape, and the shapes handed out so far
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+    private static final Set<String> SHAPES = ConcurrentHashMap.newKeySet();
+
+    private SqlShape() {}
+
+    public static String of(String sql) {
+        String shape = CACHE.get(sql);
+        if (shape != null) {
+            return shape;
+        }
+        shape = normalize(sql);
+        // Racing callers may admit a few shapes past the cap; the cap only has to bound the tags
+        if (!SHAPES.contains(shape)) {
+            if (SHAPES.size() < MAX_SHAPES) {
+                SHAPES.add(shape);
+            } else {
+                shape = OTHER;
+            }
+        }
+        if (CACHE.size() < MAX_CACHED_SQL) {
+            CACHE.putIfAbsent(sql, shape);
+        }
+        return shape;
+    }
+
+    /**
+     * The lower-case leading keyword of the statement ({@code select}, {@code insert}, ...).
+     */
+    public static String operation(String shape) {
+        int end = shape.indexOf(' ');
+        return (end < 0 ? shape : shape.substring(0, end)).toLowerCase();
+    }
+
+    static String normalize(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = REPEATED_GROUPS.matcher(shape).replaceAll("$1, ...");
+        return shape.length() > MAX_LENGTH ? shape.substring(0, MAX_LENGTH) : shape;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.relationaldataaccess.jdbc;
+
+/**
+ * One executed JDBC statement as observed by {@link InstrumentedDataSource}.
+ *
+ * @param sql the SQL text as sent to the driver
+ * @param shape the normalized statement shape, see {@link SqlShape}
+ * @param durationNanos time from execute until the result set (if any) was closed
+ * @param rows rows read or affected, or -1 when unknown
+ * @param failed whether the driver threw an exception
+ * @param binds number of bind parameters set on a prepared statement (the highest index), 0 otherwise
+ * @param parameters the bound values by index - 1, or null; the array is reused by the statement,
+ *        so listeners that keep the values must copy them during the callback
+ */
+public record StatementExecution(String sql, String shape, long durationNanos, long rows, boolean failed,
+        int binds, Object[] parameters) {
+
+    public String operation() {
+        return SqlShape.operation(shape);
+    }
+}
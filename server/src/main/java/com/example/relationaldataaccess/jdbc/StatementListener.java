@@ -0,0 +1,10 @@
+package com.example.relationaldataaccess.jdbc;
+
+/**
+ * Receives every statement executed through the {@link InstrumentedDataSource}. Called on the
+ * executing thread, so implementations must be cheap and must not throw.
+ */
+public interface StatementListener {
+
+    void afterExecution(StatementExecution execution);
+}
@@ -0,0 +1,420 @@
+package com.example.relationaldataaccess.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.relationaldataaccess.BulkDeleteJob;
+import com.example.relationaldataaccess.BulkDeleteRequest;
+import com.example.relationaldataaccess.CustomerNames;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Deletes many customers as background jobs, in chunks.
+ *
+ * Each chunk of {@code customers.delete.chunk-size} customers is locked ({@code FOR UPDATE}) and
+ * deleted in its own short transaction, so no lock is held for longer than one chunk and the job
+ * takes one pooled connection at a time; {@code chunk-pause} leaves room for other requests in
+ * between. At most {@code max-concurrent-jobs} jobs run at once, the others wait in line. After
+ * every chunk a {@link CustomerChangedEvent} is published, exactly as for a single delete.
+ *
+ * Jobs can be cancelled between chunks; what was deleted until then stays deleted. At most
+ * {@code max-queued-jobs} jobs wait per instance; beyond that {@link #submit} rejects new ones.
+ *
+ * Job state is kept in the {@code customer_delete_jobs} table, with each chunk's progress written
+ * in the chunk's own transaction, so any instance can report on or cancel any job: a job runs on
+ * the instance that accepted it, which checks for a cancel request before every chunk. Only the
+ * jobs this instance has queued or is running are also held in memory. The most recent
+ * {@code retained-jobs} finished jobs are kept in the table. A job whose instance stops while it
+ * runs is left as it was last written, and can be submitted again.
+ */
+@Service
+public class CustomerBulkDeleteService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerBulkDeleteService.class);
+
+    private static final String DELETE_SQL = "DELETE FROM customers WHERE id = ANY(?)";
+
+    private static final String SELECT_JOB = "SELECT id, state, requested, deleted, chunks, created_at, "
+            + "finished_at, error FROM customer_delete_jobs WHERE id = ?";
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${customers.delete.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${customers.delete.chunk-pause:10ms}")
+    private Duration chunkPause;
+
+    @Value("${customers.delete.max-ids:100000}")
+    private int maxIds;
+
+    @Value("${customers.delete.max-concurrent-jobs:1}")
+    private int maxConcurrentJobs;
+
+    @Value("${customers.delete.max-queued-jobs:10}")
+    private int maxQueuedJobs = 10;
+
+    @Value("${customers.delete.retained-jobs:100}")
+    private int retainedJobs;
+
+    // Jobs queued or running on this instance
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private ExecutorService executor;
+    private TransactionTemplate chunkTransaction;
+    private Counter deletedCounter;
+    private volatile boolean created;
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, maxConcurrentJobs);
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxQueuedJobs)), runnable -> {
+                    Thread thread = new Thread(runnable, "customer-bulk-delete");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        try {
+            createTable();
+        } catch (DataAccessException e) {
+            // Like the rest of startup, do not fail without a database; retried on first use
+            log.warn("Bulk delete job table could not be created yet: {}", e.getMessage());
+        }
+    }
+
+    private void createTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS customer_delete_jobs(id VARCHAR(36) PRIMARY KEY, "
+                + "state VARCHAR(16) NOT NULL, requested INT, deleted BIGINT NOT NULL, chunks BIGINT NOT NULL, "
+                + "created_at TIMESTAMP NOT NULL, finished_at TIMESTAMP, error VARCHAR(" + MAX_ERROR_LENGTH + "), "
+                + "cancel_requested BOOLEAN NOT NULL)");
+        created = true;
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        synchronized (jobs) {
+            jobs.values().forEach(job -> job.cancelled = true);
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        deletedCounter = Counter.builder("customers.delete.bulk.deleted")
+                .description("Customers deleted by bulk delete jobs")
+                .register(registry);
+    }
+
+    /**
+     * Queues a job for the request and returns its initial status. Throws
+     * {@link IllegalArgumentException} if the request has more than {@code max-ids} IDs, or names
+     * neither IDs nor any filter field, so that an empty body cannot delete every customer, and
+     * {@link RejectedExecutionException} if {@code max-queued-jobs} jobs are already waiting.
+     */
+    public BulkDeleteJob submit(BulkDeleteRequest request) {
+        Job job;
+        if (request.getIds() != null) {
+            if (request.getIds().size() > maxIds) {
+                throw new IllegalArgumentException("At most " + maxIds + " ids per request");
+            }
+            job = new Job(new ArrayList<>(new TreeSet<>(request.getIds())), null, null, null, null);
+        } else {
+            String firstName = request.getFirstName() != null ? CustomerNames.sanitize(request.getFirstName()) : null;
+            String lastName = request.getLastName() != null ? CustomerNames.sanitize(request.getLastName()) : null;
+            if (firstName == null && lastName == null && request.getMinId() == null && request.getMaxId() == null) {
+                throw new IllegalArgumentException("Give either ids or at least one of firstName, lastName, minId, maxId");
+            }
+            job = new Job(null, firstName, lastName, request.getMinId(), request.getMaxId());
+        }
+        if (!created) {
+            createTable();
+        }
+        jdbcTemplate.update("INSERT INTO customer_delete_jobs(id, state, requested, deleted, chunks, created_at, "
+                + "cancel_requested) VALUES (?, ?, ?, 0, 0, ?, FALSE)",
+                job.id, job.state.name(), job.ids != null ? job.ids.size() : null, Timestamp.from(job.createdAt));
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+        }
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            synchronized (jobs) {
+                jobs.remove(job.id);
+            }
+            jdbcTemplate.update("DELETE FROM customer_delete_jobs WHERE id = ?", job.id);
+            throw e;
+        }
+        // Forget the oldest finished jobs beyond the retention limit
+        jdbcTemplate.update("DELETE FROM customer_delete_jobs WHERE finished_at IS NOT NULL AND id NOT IN "
+                + "(SELECT id FROM customer_delete_jobs WHERE finished_at IS NOT NULL ORDER BY finished_at DESC LIMIT ?)",
+                retainedJobs);
+        return job.status();
+    }
+
+    public Optional<BulkDeleteJob> get(String jobId) {
+        synchronized (jobs) {
+            Job job = jobs.get(jobId);
+            if (job != null) {
+                return Optional.of(job.status());
+            }
+        }
+        // Finished, or running on another instance
+        if (!created) {
+            createTable();
+        }
+        return jdbcTemplate.query(SELECT_JOB, CustomerBulkDeleteService::mapStatus, jobId).stream().findFirst();
+    }
+
+    /**
+     * Asks the job to stop after its current chunk. Returns its status, or empty if it is unknown.
+     */
+    public Optional<BulkDeleteJob> cancel(String jobId) {
+        synchronized (jobs) {
+            Job job = jobs.get(jobId);
+            if (job != null) {
+                job.cancelled = true;
+                return Optional.of(job.status());
+            }
+        }
+        // Picked up by the instance running the job before its next chunk
+        if (!created) {
+            createTable();
+        }
+        jdbcTemplate.update("UPDATE customer_delete_jobs SET cancel_requested = TRUE WHERE id = ? AND finished_at IS NULL",
+                jobId);
+        return get(jobId);
+    }
+
+    private void run(Job job) {
+        long start = System.nanoTime();
+        try {
+            job.state = BulkDeleteJob.State.RUNNING;
+            jdbcTemplate.update("UPDATE customer_delete_jobs SET state = ? WHERE id = ?", job.state.name(), job.id);
+            long afterId = 0;
+            int position = 0;
+            while (!job.cancelled && !cancelRequested(job)) {
+                List<Long> chunk;
+                if (job.ids != null) {
+                    if (position >= job.ids.size()) {
+                        break;
+                    }
+                    List<Long> requested = job.ids.subList(position, Math.min(position + chunkSize, job.ids.size()));
+                    position += requested.size();
+                    chunk = deleteChunk(job, () -> lockByIds(requested));
+                } else {
+                    long from = afterId;
+                    List<Long> selected = deleteChunk(job, () -> lockByFilter(job, from));
+                    if (selected.isEmpty()) {
+                        break;
+                    }
+                    afterId = selected.get(selected.size() - 1);
+                    chunk = selected;
+                }
+                if (!chunk.isEmpty()) {
+                    if (deletedCounter != null) {
+                        deletedCounter.increment(chunk.size());
+                    }
+                    eventPublisher.publishEvent(CustomerChangedEvent.deleted(chunk));
+                }
+                if (!chunkPause.isZero()) {
+                    Thread.sleep(chunkPause.toMillis());
+                }
+            }
+            finish(job, job.cancelled ? BulkDeleteJob.State.CANCELLED : BulkDeleteJob.State.COMPLETED, null);
+            log.info("Bulk delete {} {}: {} customers in {} chunks, {} ms", job.id, job.state, job.deleted,
+                    job.chunks, (System.nanoTime() - start) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, BulkDeleteJob.State.CANCELLED, null);
+        } catch (RuntimeException e) {
+            log.warn("Bulk delete {} failed after {} customers: {}", job.id, job.deleted, e.getMessage());
+            finish(job, BulkDeleteJob.State.FAILED, e.getMessage());
+        }
+    }
+
+    // A cancel sent to another instance only reaches the table
+    private boolean cancelRequested(Job job) {
+        Boolean requested = jdbcTemplate.queryForObject(
+                "SELECT cancel_requested FROM customer_delete_jobs WHERE id = ?", Boolean.class, job.id);
+        if (Boolean.TRUE.equals(requested)) {
+            job.cancelled = true;
+        }
+        return job.cancelled;
+    }
+
+    /**
+     * Runs {@code lock}, deletes the IDs it returns and records the job's progress in one
+     * transaction, and returns the IDs.
+     */
+    private List<Long> deleteChunk(Job job, Supplier<List<Long>> lock) {
+        List<Long> deleted = chunkTransaction.execute(status -> {
+            List<Long> ids = lock.get();
+            if (!ids.isEmpty()) {
+                jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(DELETE_SQL);
+                    ps.setArray(1, con.createArrayOf("BIGINT", ids.toArray()));
+                    return ps;
+                });
+            }
+            jdbcTemplate.update("UPDATE customer_delete_jobs SET deleted = ?, chunks = ? WHERE id = ?",
+                    job.deleted + ids.size(), job.chunks + 1, job.id);
+            return ids;
+        });
+        job.chunks++;
+        job.deleted += deleted.size();
+        return deleted;
+    }
+
+    private void finish(Job job, BulkDeleteJob.State state, String error) {
+        job.finish(state, error);
+        try {
+            String message = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+            jdbcTemplate.update("UPDATE customer_delete_jobs SET state = ?, deleted = ?, chunks = ?, finished_at = ?, "
+                    + "error = ? WHERE id = ?", state.name(), job.deleted, job.chunks, Timestamp.from(job.finishedAt),
+                    message, job.id);
+        } catch (DataAccessException e) {
+            log.warn("Bulk delete {} {} but its state could not be saved: {}", job.id, state, e.getMessage());
+        } finally {
+            synchronized (jobs) {
+                jobs.remove(job.id);
+            }
+        }
+    }
+
+    private List<Long> lockByIds(List<Long> requested) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id FROM customers WHERE id = ANY(?) ORDER BY id FOR UPDATE");
+            ps.setArray(1, con.createArrayOf("BIGINT", requested.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    private List<Long> lockByFilter(Job job, long afterId) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM customers WHERE id > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        if (job.firstName != null) {
+            sql.append(" AND first_name = ?");
+            args.add(job.firstName);
+        }
+        if (job.lastName != null) {
+            sql.append(" AND last_name = ?");
+            args.add(job.lastName);
+        }
+        if (job.minId != null) {
+            sql.append(" AND id >= ?");
+            args.add(job.minId);
+        }
+        if (job.maxId != null) {
+            sql.append(" AND id <= ?");
+            args.add(job.maxId);
+        }
+        sql.append(" ORDER BY id LIMIT ? FOR UPDATE");
+        args.add(chunkSize);
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+    }
+
+    private static BulkDeleteJob mapStatus(ResultSet rs, int rowNum) throws SQLException {
+        BulkDeleteJob status = new BulkDeleteJob();
+        status.setId(rs.getString("id"));
+        status.setState(BulkDeleteJob.State.valueOf(rs.getString("state")));
+        int requested = rs.getInt("requested");
+        status.setRequested(rs.wasNull() ? null : requested);
+        status.setDeleted(rs.getLong("deleted"));
+        status.setChunks(rs.getLong("chunks"));
+        status.setCreatedAt(rs.getTimestamp("created_at").toInstant());
+        Timestamp finishedAt = rs.getTimestamp("finished_at");
+        status.setFinishedAt(finishedAt != null ? finishedAt.toInstant() : null);
+        status.setError(rs.getString("error"));
+        return status;
+    }
+
+    private static final class Job {
+
+        private final String id = UUID.randomUUID().toString();
+        private final Instant createdAt = Instant.now();
+        private final List<Long> ids;
+        private final String firstName;
+        private final String lastName;
+        private final Long minId;
+        private final Long maxId;
+
+        // Written by the job's thread, read by status requests
+        private volatile BulkDeleteJob.State state = BulkDeleteJob.State.QUEUED;
+        private volatile long deleted;
+        private volatile long chunks;
+        private volatile Instant finishedAt;
+        private volatile String error;
+        private volatile boolean cancelled;
+
+        Job(List<Long> ids, String firstName, String lastName, Long minId, Long maxId) {
+            this.ids = ids;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.minId = minId;
+            this.maxId = maxId;
+        }
+
+        void finish(BulkDeleteJob.State state, String error) {
+            this.error = error;
+            this.state = state;
+            this.finishedAt = Instant.now();
+        }
+
+        BulkDeleteJob status() {
+            BulkDeleteJob status = new BulkDeleteJob();
+            status.setId(id);
+            status.setState(state);
+            status.setRequested(ids != null ? ids.size() : null);
+            status.setDeleted(deleted);
+            status.setChunks(chunks);
+            status.setCreatedAt(createdAt);
+            status.setFinishedAt(finishedAt);
+            status.setError(error);
+            return status;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.relationaldataaccess.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.relationaldataaccess.BulkImportResult;
+import com.example.relationaldataaccess.Customer;
+import com.example.relationaldataaccess.CustomerNames;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Imports customers from NDJSON or CSV request bodies.
+ *
+ * The body is read line by line and rows are inserted in batches of
+ * {@code customers.bulk.batch-size}, so memory use is bounded by one batch regardless of the
+ * size of the upload. Rows are validated and sanitized exactly like {@code POST /api/customers};
+ * invalid rows are reported and skipped without failing the rest of the import. Each batch is
+ * inserted in its own transaction: if the database refuses any row, none of the batch is kept
+ * and all its rows are reported.
+ */
+@Service
+public class CustomerBulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerBulkImportService.class);
+
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+
+    private static final String INSERT_SQL = "INSERT INTO customers(first_name, last_name) VALUES (?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${customers.bulk.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${customers.bulk.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private TransactionTemplate batchTransaction;
+
+    @PostConstruct
+    public void init() {
+        batchTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public BulkImportResult importCustomers(InputStream body, String format) throws IOException {
+        BulkImportResult result = new BulkImportResult(format);
+        long start = System.nanoTime();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        int[] csvColumns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            String firstName;
+            String lastName;
+            if (FORMAT_CSV.equals(format)) {
+                List<String> fields = parseCsvLine(line);
+                if (csvColumns == null) {
+                    csvColumns = headerColumns(fields);
+                    if (csvColumns != null) {
+                        continue;
+                    }
+                    // No header row: columns are firstName,lastName
+                    csvColumns = new int[] {0, 1};
+                }
+                firstName = csvColumns[0] < fields.size() ? fields.get(csvColumns[0]) : null;
+                lastName = csvColumns[1] < fields.size() ? fields.get(csvColumns[1]) : null;
+            } else {
+                Customer customer;
+                try {
+                    customer = objectMapper.readValue(line, Customer.class);
+                } catch (JsonProcessingException e) {
+                    result.setReceived(result.getReceived() + 1);
+                    reject(result, lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+                    continue;
+                }
+                // A literal null is valid JSON but no customer; other non-objects fail to bind above
+                if (customer == null) {
+                    result.setReceived(result.getReceived() + 1);
+                    reject(result, lineNumber, "Expected a JSON object");
+                    continue;
+                }
+                firstName = customer.getFirstName();
+                lastName = customer.getLastName();
+            }
+            result.setReceived(result.getReceived() + 1);
+
+            String error = validate(firstName, lastName);
+            if (error != null) {
+                reject(result, lineNumber, error);
+                continue;
+            }
+            firstName = CustomerNames.sanitize(firstName);
+            lastName = CustomerNames.sanitize(lastName);
+            if (firstName.isEmpty() || lastName.isEmpty()) {
+                reject(result, lineNumber, "Names cannot be empty after sanitization");
+                continue;
+            }
+
+            batch.add(new PendingRow(lineNumber, firstName, lastName));
+            if (batch.size() >= batchSize) {
+                flush(batch, result);
+            }
+        }
+        flush(batch, result);
+
+        long elapsedNanos = System.nanoTime() - start;
+        result.setElapsedMs(elapsedNanos / 1_000_000);
+        result.setRowsPerSecond(elapsedNanos > 0 ? result.getImported() * 1_000_000_000.0 / elapsedNanos : 0);
+        log.info("Bulk import ({}) finished: {} received, {} imported, {} rejected in {} ms",
+                format, result.getReceived(), result.getImported(), result.getRejected(), result.getElapsedMs());
+        return result;
+    }
+
+    private void flush(List<PendingRow> batch, BulkImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Customer> created;
+        try {
+            // One transaction per batch: a batch is imported or rejected as a whole
+            created = batchTransaction.execute(status -> insert(batch));
+        } catch (DataAccessException e) {
+            log.warn("Bulk import batch of {} rows failed: {}", batch.size(), e.getMessage());
+            for (PendingRow row : batch) {
+                reject(result, row.line(), "Insert failed: " + e.getMostSpecificCause().getMessage());
+            }
+            created = List.of();
+        }
+        result.setImported(result.getImported() + created.size());
+        result.setBatches(result.getBatches() + 1);
+        batch.clear();
+        // Outside the try: the rows are committed whatever a listener does
+        if (!created.isEmpty()) {
+            eventPublisher.publishEvent(CustomerChangedEvent.created(created));
+        }
+    }
+
+    private List<Customer> insert(List<PendingRow> batch) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setString(1, batch.get(i).firstName());
+                        ps.setString(2, batch.get(i).lastName());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != batch.size()) {
+            // Rolls the batch back: rows without a known ID could not be announced to the caches
+            throw new DataRetrievalFailureException(
+                    "Got " + keys.size() + " generated IDs for " + batch.size() + " rows");
+        }
+        List<Customer> created = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            PendingRow row = batch.get(i);
+            created.add(new Customer(id.longValue(), row.firstName(), row.lastName()));
+        }
+        return created;
+    }
+
+    private void reject(BulkImportResult result, long line, String message) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BulkImportResult.RowError(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    // Same checks as POST /api/customers
+    private static String validate(String firstName, String lastName) {
+        if (firstName == null || firstName.trim().isEmpty()) {
+            return "First name cannot be empty";
+        }
+        if (lastName == null || lastName.trim().isEmpty()) {
+            return "Last name cannot be empty";
+        }
+        return null;
+    }
+
+    /**
+     * Returns the positions of the first and last name columns if {@code fields} is a header row
+     * ({@code firstName,lastName} or {@code first_name,last_name} in any order), otherwise null.
+     */
+    private static int[] headerColumns(List<String> fields) {
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < fields.size(); i++) {
+            String column = fields.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT);
+            if (column.equals("firstname")) {
+                first = i;
+            } else if (column.equals("lastname")) {
+                last = i;
+            }
+        }
+        return first >= 0 && last >= 0 ? new int[] {first, last} : null;
+    }
+
+    /**
+     * Splits one CSV record, honoring double-quoted fields and {@code ""} escapes.
+     * Quoted fields may not span lines.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record PendingRow(long line, String firstName, String lastName) {}
+}
@@ -0,0 +1,140 @@
+package com.example.relationaldataaccess.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.example.relationaldataaccess.Customer;
+import com.example.relationaldataaccess.jdbc.ReplicaRoute;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Read-through cache in front of the customer-by-ID lookup.
+ *
+ * Backed by Caffeine (size-bounded, W-TinyLFU eviction, optional TTL). Misses are loaded
+ * through {@link Cache#get}, which runs at most one loader per ID at a time, so a burst of
+ * requests for the same uncached customer results in a single query. Unknown IDs are cached
+ * as empty too and are invalidated when a customer is created, except when they were looked up
+ * on a read replica: it may not have a customer created a moment ago yet, and caching that miss
+ * would answer 404 for the whole TTL.
+ */
+@Component
+public class CustomerCache implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerCache.class);
+
+    @Value("${customers.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${customers.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${customers.cache.ttl:0s}")
+    private Duration ttl;
+
+    private Cache<Long, Optional<Customer>> cache;
+
+    @PostConstruct
+    public void init() {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats();
+        if (!ttl.isZero()) {
+            builder.expireAfterWrite(ttl);
+        }
+        cache = builder.build();
+        log.info("Customer cache {} (maximum size {}, ttl {})",
+                enabled ? "enabled" : "disabled", maximumSize, ttl.isZero() ? "none" : ttl);
+    }
+
+    public Optional<Customer> get(long id, Function<Long, Optional<Customer>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        Optional<Customer> customer = cache.get(id, key -> {
+            Optional<Customer> loaded = loader.apply(key);
+            // Returning null leaves the ID uncached
+            return loaded.isEmpty() && ReplicaRoute.isActive() ? null : loaded;
+        });
+        return customer != null ? customer : Optional.empty();
+    }
+
+    /**
+     * Looks up several IDs at once; the misses are handed to {@code loader} together, which must
+     * return an entry (empty if unknown) for each ID it is given. Unknown IDs may be missing from
+     * the result.
+     */
+    public Map<Long, Optional<Customer>> getAll(Set<Long> ids,
+            Function<Set<? extends Long>, Map<Long, Optional<Customer>>> loader) {
+        if (!enabled) {
+            return loader.apply(ids);
+        }
+        return cache.getAll(ids, missing -> {
+            Map<Long, Optional<Customer>> loaded = loader.apply(missing);
+            if (!ReplicaRoute.isActive()) {
+                return loaded;
+            }
+            // IDs left out of the returned map are not cached
+            Map<Long, Optional<Customer>> found = new HashMap<>(loaded);
+            found.values().removeIf(Optional::isEmpty);
+            return found;
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "customersById");
+    }
+
+    @EventListener
+    @Order(CustomerChangedEvent.UPDATE_ORDER)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        invalidateAll(event.getIds());
+    }
+
+    /**
+     * Drops the given IDs, for changes this instance learns about without an event.
+     */
+    public void invalidateAll(Collection<Long> ids) {
+        cache.invalidateAll(ids);
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("size", cache.estimatedSize());
+        result.put("maximumSize", maximumSize);
+        result.put("ttlSeconds", ttl.toSeconds());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("loadCount", stats.loadCount());
+        result.put("averageLoadPenaltyMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.relationaldataaccess.service;
+
+import java.util.List;
+
+import com.example.relationaldataaccess.Customer;
+
+/**
+ * Published after customers have been written to the database. Everything that keeps
+ * customer data in memory (search index, cache, ...) listens for it, so every write path
+ * only has to publish one event.
+ */
+public class CustomerChangedEvent {
+
+    public enum Type { CREATED, DELETED }
+
+    /** Listener order of the cache and the indexes, which must be updated before the version. */
+    public static final int UPDATE_ORDER = 0;
+
+    /** Listener order of {@link CustomerVersion}: once the data it versions is up to date. */
+    public static final int VERSION_ORDER = 100;
+
+    private final Type type;
+    private final List<Long> ids;
+    private final List<Customer> customers;
+
+    private CustomerChangedEvent(Type type, List<Long> ids, List<Customer> customers) {
+        this.type = type;
+        this.ids = ids;
+        this.customers = customers;
+    }
+
+    public static CustomerChangedEvent created(List<Customer> customers) {
+        return new CustomerChangedEvent(Type.CREATED,
+                customers.stream().map(Customer::getId).toList(), List.copyOf(customers));
+    }
+
+    public static CustomerChangedEvent deleted(List<Long> ids) {
+        return new CustomerChangedEvent(Type.DELETED, List.copyOf(ids), List.of());
+    }
+
+    public Type getType() { return type; }
+
+    /** IDs of all affected customers. */
+    public List<Long> getIds() { return ids; }
+
+    /** The new customers for {@link Type#CREATED}; empty for deletes. */
+    public List<Customer> getCustomers() { return customers; }
+}
@@ -0,0 +1,323 @@
+package com.example.relationaldataaccess.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Publishes {@link CustomerChangedEvent}s to Server-Sent Events subscribers.
+ *
+ * Events are named {@code created} (data: the new customers) or {@code deleted} (data: the
+ * removed IDs) and carry an ID of the form {@code <epoch>-<sequence>}. The last
+ * {@code customers.events.buffer-size} events are kept in a ring buffer, so a client that
+ * reconnects with {@code Last-Event-ID} gets what it missed. When that is no longer possible
+ * (the events were overwritten, or the ID is from before a restart) it gets a {@code reset}
+ * event and should reload the list.
+ *
+ * Idle subscribers are async requests without a thread. Each subscriber has a bounded queue
+ * drained by a shared sender pool of {@code customers.events.sender-threads} (virtual threads when
+ * {@code spring.threads.virtual.enabled}). A subscriber whose queue fills up, or whose current send
+ * has been blocked for longer than {@code customers.events.send-timeout}, is disconnected, and its
+ * client can resume from the buffer; a blocked sender thread itself is freed by the connector's
+ * write timeout. Only writes made through this instance are published.
+ */
+@Component
+public class CustomerEventStream implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerEventStream.class);
+
+    private static final Event HEARTBEAT = new Event(null, null, null);
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Object lock = new Object();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${customers.events.buffer-size:1000}")
+    private int bufferSize;
+
+    @Value("${customers.events.subscriber-queue-size:100}")
+    private int queueSize;
+
+    @Value("${customers.events.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${customers.events.heartbeat-interval:30s}")
+    private Duration heartbeatInterval;
+
+    @Value("${customers.events.sender-threads:16}")
+    private int senderThreads = 16;
+
+    @Value("${customers.events.send-timeout:10s}")
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Guarded by lock
+    private Event[] ring;
+    private long nextSequence = 1;
+
+    private Executor sender;
+    private ScheduledExecutorService heartbeat;
+    private Counter dropped;
+
+    @PostConstruct
+    public void init() {
+        ring = new Event[bufferSize];
+        if (virtualThreads) {
+            sender = new VirtualThreadTaskExecutor("customer-events-");
+        } else {
+            AtomicInteger threads = new AtomicInteger();
+            // Each subscriber has at most one drain task queued, so the queue is bounded by the subscribers
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "customer-events-" + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            sender = pool;
+        }
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-events-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = heartbeatInterval.toMillis();
+        heartbeat.scheduleAtFixedRate(() -> subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT)),
+                interval, interval, TimeUnit.MILLISECONDS);
+        long check = Math.max(10, sendTimeout.toMillis() / 2);
+        heartbeat.scheduleAtFixedRate(this::dropStalled, check, check, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        heartbeat.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.close(false));
+        if (sender instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("customers.events.subscribers", subscribers, Set::size)
+                .description("Open /api/customers/events streams")
+                .register(registry);
+        dropped = Counter.builder("customers.events.dropped")
+                .description("Event stream subscribers disconnected for falling behind")
+                .register(registry);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Opens a stream, first replaying the buffered events after {@code lastEventId} if given.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        return register(new SseEmitter(timeout.toMillis()), lastEventId);
+    }
+
+    SseEmitter register(SseEmitter emitter, String lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscriber.close(false));
+        emitter.onTimeout(() -> subscriber.close(false));
+        emitter.onError(error -> subscriber.close(false));
+        synchronized (lock) {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        boolean created = event.getType() == CustomerChangedEvent.Type.CREATED;
+        String data;
+        try {
+            // Serialized once and shared by all subscribers
+            data = objectMapper.writeValueAsString(created ? event.getCustomers() : event.getIds());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize customer event: {}", e.getMessage());
+            return;
+        }
+        synchronized (lock) {
+            long sequence = nextSequence++;
+            Event published = new Event(epoch + "-" + sequence, created ? "created" : "deleted", data);
+            ring[(int) (sequence % ring.length)] = published;
+            subscribers.forEach(subscriber -> subscriber.offer(published));
+        }
+    }
+
+    private void dropStalled() {
+        long now = System.nanoTime();
+        subscribers.forEach(subscriber -> {
+            if (subscriber.isStalled(now)) {
+                if (dropped != null) {
+                    dropped.increment();
+                }
+                subscriber.close(true);
+            }
+        });
+    }
+
+    // Called with lock held
+    private void replay(Subscriber subscriber, String lastEventId) {
+        long oldest = Math.max(1, nextSequence - ring.length);
+        long last = parseSequence(lastEventId);
+        if (last < oldest - 1 || last >= nextSequence) {
+            subscriber.offer(new Event(epoch + "-" + (nextSequence - 1), "reset", "{}"));
+            return;
+        }
+        for (long sequence = last + 1; sequence < nextSequence; sequence++) {
+            subscriber.offer(ring[(int) (sequence % ring.length)]);
+        }
+    }
+
+    /**
+     * The sequence number of an event ID issued by this process, or -1 for anything else.
+     */
+    private long parseSequence(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private record Event(String id, String name, String data) {
+
+        SseEmitter.SseEventBuilder toSse() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return SseEmitter.event().id(id).name(name).data(data);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(queueSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean pendingComplete = new AtomicBoolean();
+        private volatile boolean closed;
+        // System.nanoTime() when the send in progress started, 0 if none
+        private volatile long sendStarted;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Event event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                // Too slow: disconnect, the client can resume from the ring buffer
+                if (dropped != null) {
+                    dropped.increment();
+                }
+                close(true);
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RuntimeException e) {
+                    draining.set(false);
+                    close(true);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Event event;
+                while (!closed && (event = queue.poll()) != null) {
+                    sendStarted = System.nanoTime();
+                    emitter.send(event.toSse());
+                    sendStarted = 0;
+                }
+                if (closed && pendingComplete.getAndSet(false)) {
+                    emitter.complete();
+                }
+            } catch (IOException | RuntimeException e) {
+                close(false);
+            } finally {
+                sendStarted = 0;
+                draining.set(false);
+            }
+            // An event or a close may have arrived after the last check but before draining was reset
+            if (closed ? pendingComplete.get() : !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        boolean isStalled(long now) {
+            long started = sendStarted;
+            return started != 0 && now - started > sendTimeout.toNanos();
+        }
+
+        void close(boolean complete) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+            if (complete) {
+                // complete() waits for a send in progress, which may be blocked on this client: leave
+                // it to the sender rather than block the publisher or the watchdog
+                pendingComplete.set(true);
+                scheduleDrain();
+            }
+        }
+    }
+}
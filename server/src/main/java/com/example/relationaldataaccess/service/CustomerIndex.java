@@ -0,0 +1,51 @@
+package com.example.relationaldataaccess.service;
+
+import java.util.List;
+
+import com.example.relationaldataaccess.Customer;
+
+/**
+ * An in-memory index over the customers table, loaded by {@link CustomerIndexLoader} and kept
+ * current by {@link CustomerChangedEvent}s from this instance and by
+ * {@link CustomerIndexRefresher} for writes made anywhere else.
+ */
+interface CustomerIndex {
+
+    /**
+     * Whether the index is in use at all; disabled indexes are never loaded.
+     */
+    boolean isEnabled();
+
+    /**
+     * Whether the index has been loaded; indexes that are not are neither queried nor refreshed.
+     */
+    boolean isReady();
+
+    /**
+     * Called before the table is read for {@link #finishLoad(List)}, so that deletes from then on
+     * are not undone by the rows read.
+     */
+    void startLoad();
+
+    /**
+     * Loads the customers read from the table. The list and its customers are shared with the
+     * other indexes and must not be modified.
+     */
+    void finishLoad(List<Customer> customers);
+
+    /**
+     * The table could not be read; the index keeps its previous state.
+     */
+    void failLoad();
+
+    boolean contains(long id);
+
+    /**
+     * The IDs of all customers in the index, ascending.
+     */
+    long[] ids();
+
+    void add(Customer customer);
+
+    void remove(long id);
+}
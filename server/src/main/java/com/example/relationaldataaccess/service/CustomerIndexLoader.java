@@ -0,0 +1,84 @@
+package com.example.relationaldataaccess.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import com.example.relationaldataaccess.Customer;
+import com.example.relationaldataaccess.CustomerRowMapper;
+
+/**
+ * Loads every enabled {@link CustomerIndex} from a single read of the customers table.
+ *
+ * The read runs once the application is ready, on a background thread unless
+ * {@code customers.index.load-async} is off, so it is not on the startup path: until an index is
+ * ready its queries fall back to SQL. All indexes are given the same {@link Customer} objects, so
+ * the table is held in memory once rather than once per index.
+ */
+@Component
+public class CustomerIndexLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerIndexLoader.class);
+
+    // In ID order, so the indexes' sorted ID lists are built by appending
+    private static final String SELECT_ALL = "SELECT id, first_name, last_name FROM customers ORDER BY id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private List<CustomerIndex> indexes;
+
+    @Value("${customers.index.load-async:true}")
+    private boolean async = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!async) {
+            load();
+            return;
+        }
+        Thread thread = new Thread(this::load, "customer-index-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Reads the table and loads it into every enabled index. Loading an index that is already
+     * ready adds the customers it misses.
+     */
+    public void load() {
+        List<CustomerIndex> enabled = new ArrayList<>(indexes.size());
+        for (CustomerIndex index : indexes) {
+            if (index.isEnabled()) {
+                enabled.add(index);
+            }
+        }
+        if (enabled.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        enabled.forEach(CustomerIndex::startLoad);
+        List<Customer> customers = new ArrayList<>();
+        try {
+            jdbcTemplate.query(SELECT_ALL, (RowCallbackHandler) rs -> customers.add(CustomerRowMapper.INSTANCE.mapRow(rs, 0)));
+        } catch (RuntimeException e) {
+            log.warn("Customer indexes could not be loaded, searches and suggestions use SQL: {}", e.getMessage());
+            enabled.forEach(CustomerIndex::failLoad);
+            return;
+        }
+        log.info("Read {} customers for the indexes in {} ms", customers.size(), (System.nanoTime() - start) / 1_000_000);
+        for (CustomerIndex index : enabled) {
+            index.finishLoad(customers);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.relationaldataaccess.service;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.relationaldataaccess.Customer;
+import com.example.relationaldataaccess.CustomerRowMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Brings the in-memory {@link CustomerIndex}es up to date with writes they were not told about:
+ * those made by other instances or directly in the database.
+ *
+ * Every {@code customers.index.refresh-interval} the rows with an ID above the highest one each
+ * index has seen are read (a range scan of the primary key) and added. That misses deletes, and
+ * rows whose transaction committed after a higher ID had already been read, so every
+ * {@code customers.index.reconcile-interval} the full list of IDs is compared with each index:
+ * customers that are gone are removed and missing ones loaded. Between two runs an index may
+ * still be behind the database by up to one interval.
+ *
+ * IDs changed by this instance while a run is in progress are left alone, since the run may have
+ * read them before the change and the {@link CustomerChangedEvent} updates the indexes anyway;
+ * deletes among them are applied once more at the end of the run.
+ *
+ * A run that changed an index also drops the affected IDs from the {@link CustomerCache} and then
+ * bumps the {@link CustomerVersion}, so ETags change once this instance serves the new data.
+ */
+@Component
+public class CustomerIndexRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerIndexRefresher.class);
+
+    // Customers without both names are never indexed, so they are neither loaded nor counted as missing
+    private static final String SELECT_NEW = "SELECT id, first_name, last_name FROM customers "
+            + "WHERE id > ? AND first_name IS NOT NULL AND last_name IS NOT NULL ORDER BY id";
+    private static final String SELECT_IDS =
+            "SELECT id FROM customers WHERE first_name IS NOT NULL AND last_name IS NOT NULL ORDER BY id";
+    private static final String SELECT_BY_IDS = "SELECT id, first_name, last_name FROM customers WHERE id = ANY(?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private List<CustomerIndex> indexes;
+
+    @Autowired
+    private CustomerCache customerCache;
+
+    @Autowired
+    private CustomerVersion customerVersion;
+
+    @Value("${customers.index.refresh-interval:30s}")
+    private Duration refreshInterval = Duration.ofSeconds(30);
+
+    @Value("${customers.index.reconcile-interval:10m}")
+    private Duration reconcileInterval = Duration.ofMinutes(10);
+
+    private ScheduledExecutorService scheduler;
+
+    // Highest ID read into each index; only touched by the (single) refresh thread
+    private final Map<CustomerIndex, Long> lastSeen = new IdentityHashMap<>();
+
+    // IDs created or deleted through events while a run is in progress
+    private final Set<Long> changedDuringRun = new HashSet<>();
+    private final Set<Long> deletedDuringRun = new HashSet<>();
+    private boolean running;
+
+    @PostConstruct
+    public void init() {
+        if (refreshInterval.isZero() || refreshInterval.isNegative()) {
+            log.info("Customer index refresh disabled; indexes only see writes made through this instance");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-index-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long refresh = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> run("refresh", this::refresh), refresh, refresh, TimeUnit.MILLISECONDS);
+        if (!reconcileInterval.isZero() && !reconcileInterval.isNegative()) {
+            long reconcile = reconcileInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(() -> run("reconcile", this::reconcile), reconcile, reconcile,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // Runs before the indexes' own listeners, so a run never sees a change without its ID
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onCustomerChanged(CustomerChangedEvent event) {
+        if (!running) {
+            return;
+        }
+        if (event.getType() == CustomerChangedEvent.Type.CREATED) {
+            event.getCustomers().forEach(customer -> changedDuringRun.add(customer.getId()));
+        } else {
+            changedDuringRun.addAll(event.getIds());
+            deletedDuringRun.addAll(event.getIds());
+        }
+    }
+
+    /**
+     * Adds customers created since the last run to each ready index.
+     */
+    void refresh() {
+        List<CustomerIndex> ready = ready();
+        if (ready.isEmpty()) {
+            return;
+        }
+        long from = Long.MAX_VALUE;
+        for (CustomerIndex index : ready) {
+            from = Math.min(from, lastSeen.computeIfAbsent(index, CustomerIndexRefresher::highestId));
+        }
+        start();
+        try {
+            List<Customer> created = jdbcTemplate.query(SELECT_NEW, CustomerRowMapper.INSTANCE, from);
+            Set<Long> changedIds = new HashSet<>();
+            for (CustomerIndex index : ready) {
+                long seen = lastSeen.get(index);
+                for (Customer customer : created) {
+                    if (customer.getId() > seen && !index.contains(customer.getId()) && !changed(customer.getId())) {
+                        index.add(customer);
+                        changedIds.add(customer.getId());
+                    }
+                    seen = Math.max(seen, customer.getId());
+                }
+                lastSeen.put(index, seen);
+            }
+            removeDeleted(ready);
+            if (!changedIds.isEmpty()) {
+                log.debug("Customer index refresh added {} customers", changedIds.size());
+                publish(changedIds);
+            }
+        } finally {
+            finish();
+        }
+    }
+
+    /**
+     * Removes customers that no longer exist from each ready index and loads the ones it misses.
+     */
+    void reconcile() {
+        List<CustomerIndex> ready = ready();
+        if (ready.isEmpty()) {
+            return;
+        }
+        start();
+        try {
+            long[] current = currentIds();
+            Map<CustomerIndex, Set<Long>> missing = new IdentityHashMap<>();
+            Set<Long> toLoad = new LinkedHashSet<>();
+            Set<Long> changedIds = new HashSet<>();
+            int removed = 0;
+            for (CustomerIndex index : ready) {
+                long[] indexed = index.ids();
+                Set<Long> absent = new HashSet<>();
+                // Both arrays are sorted: walk them side by side
+                int i = 0;
+                int j = 0;
+                while (i < current.length || j < indexed.length) {
+                    if (j == indexed.length || i < current.length && current[i] < indexed[j]) {
+                        long id = current[i++];
+                        if (!changed(id)) {
+                            absent.add(id);
+                        }
+                    } else if (i == current.length || indexed[j] < current[i]) {
+                        long id = indexed[j++];
+                        if (!changed(id)) {
+                            index.remove(id);
+                            changedIds.add(id);
+                            removed++;
+                        }
+                    } else {
+                        i++;
+                        j++;
+                    }
+                }
+                missing.put(index, absent);
+                toLoad.addAll(absent);
+            }
+
+            int added = 0;
+            if (!toLoad.isEmpty()) {
+                Object[] values = toLoad.toArray();
+                List<Customer> loaded = jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(SELECT_BY_IDS);
+                    ps.setArray(1, con.createArrayOf("BIGINT", values));
+                    return ps;
+                }, CustomerRowMapper.INSTANCE);
+                for (CustomerIndex index : ready) {
+                    Set<Long> absent = missing.get(index);
+                    for (Customer customer : loaded) {
+                        if (absent.contains(customer.getId()) && !changed(customer.getId())
+                                && customer.getFirstName() != null && customer.getLastName() != null) {
+                            index.add(customer);
+                            changedIds.add(customer.getId());
+                            added++;
+                        }
+                    }
+                }
+            }
+            removeDeleted(ready);
+            if (added > 0 || removed > 0) {
+                log.info("Customer index reconcile added {} and removed {} entries", added, removed);
+                publish(changedIds);
+            }
+        } finally {
+            finish();
+        }
+    }
+
+    private void run(String name, Runnable task) {
+        // An exception would cancel the schedule, so log it and try again next time
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.warn("Customer index {} failed: {}", name, e.getMessage());
+        }
+    }
+
+    // The indexes already serve the new data: drop stale cache entries, then move the ETags on
+    private void publish(Set<Long> ids) {
+        customerCache.invalidateAll(ids);
+        customerVersion.bump();
+    }
+
+    private List<CustomerIndex> ready() {
+        List<CustomerIndex> ready = new ArrayList<>(indexes.size());
+        for (CustomerIndex index : indexes) {
+            if (index.isReady()) {
+                ready.add(index);
+            }
+        }
+        return ready;
+    }
+
+    private long[] currentIds() {
+        long[][] ids = {new long[1024]};
+        int[] count = {0};
+        jdbcTemplate.query(SELECT_IDS, rs -> {
+            if (count[0] == ids[0].length) {
+                ids[0] = Arrays.copyOf(ids[0], count[0] * 2);
+            }
+            ids[0][count[0]++] = rs.getLong(1);
+        });
+        return Arrays.copyOf(ids[0], count[0]);
+    }
+
+    private static long highestId(CustomerIndex index) {
+        long[] ids = index.ids();
+        return ids.length == 0 ? 0 : ids[ids.length - 1];
+    }
+
+    private synchronized void start() {
+        running = true;
+    }
+
+    private synchronized boolean changed(long id) {
+        return changedDuringRun.contains(id);
+    }
+
+    // A delete may have been applied between a run's check and its add: apply it once more
+    private void removeDeleted(List<CustomerIndex> ready) {
+        List<Long> deleted;
+        synchronized (this) {
+            deleted = new ArrayList<>(deletedDuringRun);
+        }
+        for (CustomerIndex index : ready) {
+            deleted.forEach(index::remove);
+        }
+    }
+
+    private synchronized void finish() {
+        running = false;
+        changedDuringRun.clear();
+        deletedDuringRun.clear();
+    }
+}
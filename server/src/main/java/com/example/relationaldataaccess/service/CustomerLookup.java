@@ -0,0 +1,173 @@
+package com.example.relationaldataaccess.service;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.relationaldataaccess.Customer;
+import com.example.relationaldataaccess.CustomerRowMapper;
+import com.example.relationaldataaccess.jdbc.ReplicaRoute;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Customer lookups by ID, through {@link CustomerCache}.
+ *
+ * Cache misses for several IDs are loaded with a single {@code WHERE id = ANY(?)} query. With
+ * {@code customers.lookup.coalescing.enabled}, concurrent single-ID misses are also collected by
+ * a {@link MicroBatcher} for up to {@code max-delay} and loaded together, each distinct ID once.
+ * A coalesced query only goes to a read replica if every lookup in it was allowed to.
+ */
+@Service
+public class CustomerLookup implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerLookup.class);
+
+    private static final String SELECT_BY_IDS = "SELECT id, first_name, last_name FROM customers WHERE id = ANY(?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomerCache customerCache;
+
+    @Value("${customers.lookup.coalescing.enabled:false}")
+    private boolean coalescing;
+
+    @Value("${customers.lookup.coalescing.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${customers.lookup.coalescing.max-delay:1ms}")
+    private Duration maxDelay;
+
+    private MicroBatcher<Lookup, Optional<Customer>> batcher;
+    private DistributionSummary batchSizes;
+
+    @PostConstruct
+    public void init() {
+        if (coalescing) {
+            batcher = new MicroBatcher<>("customer-lookup-coalescing", maxBatchSize, maxDelay, this::loadCoalesced);
+            log.info("Customer lookup coalescing enabled (max batch size {}, max delay {})", maxBatchSize, maxDelay);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchSizes = DistributionSummary.builder("customers.lookup.batch.size")
+                .description("Distinct IDs loaded per query by customer lookups")
+                .register(registry);
+    }
+
+    public Optional<Customer> findById(long id) {
+        return customerCache.get(id, key -> batcher == null ? load(Set.of(key)).get(key) : submit(key));
+    }
+
+    /**
+     * Returns the customers with the given IDs in the order the IDs are given, each once; unknown
+     * IDs are left out.
+     */
+    public List<Customer> findByIds(Collection<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        if (distinct.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Optional<Customer>> found = customerCache.getAll(distinct, this::load);
+        List<Customer> result = new ArrayList<>(distinct.size());
+        for (Long id : distinct) {
+            found.getOrDefault(id, Optional.empty()).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    private Optional<Customer> submit(long id) {
+        try {
+            return batcher.submit(new Lookup(id, ReplicaRoute.isActive())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for customer lookup", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private List<Optional<Customer>> loadCoalesced(List<Lookup> lookups) {
+        Set<Long> ids = new LinkedHashSet<>();
+        boolean replica = true;
+        for (Lookup lookup : lookups) {
+            ids.add(lookup.id());
+            replica &= lookup.replica();
+        }
+        // The batch runs on the batcher's thread, which carries no route of its own
+        if (replica) {
+            ReplicaRoute.enter();
+        }
+        Map<Long, Optional<Customer>> found;
+        try {
+            found = load(ids);
+        } finally {
+            if (replica) {
+                ReplicaRoute.exit();
+            }
+        }
+        List<Optional<Customer>> results = new ArrayList<>(lookups.size());
+        for (Lookup lookup : lookups) {
+            results.add(found.get(lookup.id()));
+        }
+        return results;
+    }
+
+    /**
+     * Loads the given IDs with one query; IDs without a row map to an empty optional.
+     */
+    private Map<Long, Optional<Customer>> load(Set<? extends Long> ids) {
+        Object[] values = ids.toArray();
+        List<Customer> customers = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_BY_IDS);
+            ps.setArray(1, con.createArrayOf("BIGINT", values));
+            return ps;
+        }, CustomerRowMapper.INSTANCE);
+        if (batchSizes != null) {
+            batchSizes.record(values.length);
+        }
+
+        Map<Long, Optional<Customer>> found = new HashMap<>(values.length * 2);
+        for (Long id : ids) {
+            found.put(id, Optional.empty());
+        }
+        for (Customer customer : customers) {
+            found.put(customer.getId(), Optional.of(customer));
+        }
+        return found;
+    }
+
+    private record Lookup(long id, boolean replica) {}
+}
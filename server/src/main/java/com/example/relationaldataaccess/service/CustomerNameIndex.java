@@ -0,0 +1,400 @@
+package com.example.relationaldataaccess.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.example.relationaldataaccess.Customer;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory prefix index over customer first and last names, for autocomplete.
+ *
+ * Names live in two parallel arrays sorted case-insensitively (then by ID), so all names with a
+ * given prefix form one contiguous run found by binary search: a suggestion costs a couple of
+ * dozen string comparisons plus the run it returns. The arrays hold references to the same
+ * {@link Customer} objects as the rest of the application sees, so besides them the index costs
+ * two array slots per name and one {@code long} per customer (a sorted ID column used to tell
+ * which customers the arrays contain).
+ *
+ * Sorted arrays are expensive to change one element at a time, so creates go to a small sorted
+ * delta and deletes of customers in the arrays become tombstones. Queries merge the arrays with
+ * the delta; once delta and tombstones together reach {@code customers.suggest.index.merge-threshold}
+ * they are folded into new arrays.
+ *
+ * Like {@link CustomerSearchIndex}, the index is loaded by {@link CustomerIndexLoader} and kept
+ * current through {@link CustomerChangedEvent}s from this instance, and by
+ * {@link CustomerIndexRefresher} for writes made by other instances or directly in the database.
+ */
+@Component
+public class CustomerNameIndex implements CustomerIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerNameIndex.class);
+
+    private static final Comparator<Name> NAME_ORDER = Comparator
+            .comparing(Name::name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingLong(Name::id);
+
+    private static final String[] NO_NAMES = new String[0];
+    private static final Customer[] NO_CUSTOMERS = new Customer[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // The sorted arrays: names[i] belongs to customers[i]; ids holds each customer's ID once, ascending
+    private String[] names = NO_NAMES;
+    private Customer[] customers = NO_CUSTOMERS;
+    private long[] ids = new long[0];
+
+    // Changes since the arrays were built
+    private final NavigableSet<Name> added = new TreeSet<>(NAME_ORDER);
+    private final Set<Long> addedIds = new HashSet<>();
+    private final Set<Long> removed = new HashSet<>();
+    private long merges;
+
+    // Deletes that happen while the initial load is running, re-applied once it finishes
+    private final Set<Long> deletedDuringLoad = new HashSet<>();
+    private volatile boolean loading;
+    private volatile boolean ready;
+
+    @Value("${customers.suggest.index.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${customers.suggest.index.merge-threshold:10000}")
+    private int mergeThreshold = 10000;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("Customer name index disabled; suggestions use SQL");
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void startLoad() {
+        lock.writeLock().lock();
+        try {
+            loading = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void finishLoad(List<Customer> loaded) {
+        long start = System.nanoTime();
+        int customerCount;
+        int nameCount;
+        lock.writeLock().lock();
+        try {
+            // Creates published during the load are in the delta and may also have been read
+            List<Customer> existing = new ArrayList<>(loaded.size());
+            for (Customer customer : loaded) {
+                if (customer.getFirstName() != null && customer.getLastName() != null
+                        && !addedIds.contains(customer.getId()) && !deletedDuringLoad.contains(customer.getId())) {
+                    existing.add(customer);
+                }
+            }
+            rebuild(existing, pendingCreates());
+            deletedDuringLoad.clear();
+            loading = false;
+            ready = true;
+            customerCount = ids.length;
+            nameCount = names.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Customer name index loaded: {} customers, {} names in {} ms",
+                customerCount, nameCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void failLoad() {
+        lock.writeLock().lock();
+        try {
+            deletedDuringLoad.clear();
+            loading = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether suggestions can be answered from the index. Until then callers should fall back to SQL.
+     */
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.length - removed.size() + addedIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return addedIds.contains(id) || !removed.contains(id) && Arrays.binarySearch(ids, id) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] ids() {
+        long[] result;
+        lock.readLock().lock();
+        try {
+            result = new long[ids.length - removed.size() + addedIds.size()];
+            int count = 0;
+            for (long id : ids) {
+                if (!removed.contains(id)) {
+                    result[count++] = id;
+                }
+            }
+            for (long id : addedIds) {
+                result[count++] = id;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    @Override
+    public void add(Customer customer) {
+        if (!enabled || customer.getFirstName() == null || customer.getLastName() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(customer.getId());
+            addedIds.add(customer.getId());
+            added.add(new Name(customer.getFirstName(), customer));
+            if (!customer.getLastName().equalsIgnoreCase(customer.getFirstName())) {
+                added.add(new Name(customer.getLastName(), customer));
+            }
+            mergeIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                deletedDuringLoad.add(id);
+            }
+            removeLocked(id);
+            mergeIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    @Order(CustomerChangedEvent.UPDATE_ORDER)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.getType() == CustomerChangedEvent.Type.CREATED) {
+            event.getCustomers().forEach(this::add);
+        } else {
+            event.getIds().forEach(this::remove);
+        }
+    }
+
+    /**
+     * Returns at most {@code limit} customers whose first or last name starts with {@code prefix},
+     * ignoring case, in alphabetical order of the matching name (ties by ID). A customer whose
+     * first and last name both match is returned once, at its first match.
+     */
+    public List<Customer> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Customer> result = new ArrayList<>(Math.min(limit, 16));
+            Set<Long> seen = new HashSet<>();
+            int index = lowerBound(prefix);
+            Iterator<Name> delta = added.tailSet(new Name(prefix, Long.MIN_VALUE), true).iterator();
+            Name next = delta.hasNext() ? delta.next() : null;
+            while (result.size() < limit) {
+                boolean fromArrays = index < names.length && startsWith(names[index], prefix);
+                boolean fromDelta = next != null && startsWith(next.name(), prefix);
+                Customer customer;
+                if (fromArrays && (!fromDelta || compare(names[index], customers[index], next) < 0)) {
+                    customer = customers[index++];
+                    if (removed.contains(customer.getId())) {
+                        continue;
+                    }
+                } else if (fromDelta) {
+                    customer = next.customer();
+                    next = delta.hasNext() ? delta.next() : null;
+                } else {
+                    break;
+                }
+                if (seen.add(customer.getId())) {
+                    result.add(customer);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sizes of the arrays and of the pending changes, for the admin endpoint.
+     */
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ready", ready);
+            stats.put("customers", ids.length - removed.size() + addedIds.size());
+            stats.put("names", names.length);
+            stats.put("pendingCreates", addedIds.size());
+            stats.put("pendingDeletes", removed.size());
+            stats.put("merges", merges);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long id) {
+        if (addedIds.remove(id)) {
+            added.removeIf(name -> name.id() == id);
+        } else if (Arrays.binarySearch(ids, id) >= 0) {
+            removed.add(id);
+        }
+    }
+
+    private void mergeIfNeeded() {
+        // While loading, the delta is folded in by finishLoad() itself
+        if (!loading && addedIds.size() + removed.size() >= mergeThreshold) {
+            List<Customer> kept = new ArrayList<>(ids.length);
+            Set<Long> keptIds = new HashSet<>();
+            for (Customer customer : customers) {
+                if (!removed.contains(customer.getId()) && keptIds.add(customer.getId())) {
+                    kept.add(customer);
+                }
+            }
+            rebuild(kept, pendingCreates());
+            merges++;
+        }
+    }
+
+    private List<Customer> pendingCreates() {
+        List<Customer> creates = new ArrayList<>(addedIds.size());
+        Set<Long> createdIds = new HashSet<>();
+        for (Name name : added) {
+            if (createdIds.add(name.id())) {
+                creates.add(name.customer());
+            }
+        }
+        return creates;
+    }
+
+    /**
+     * Replaces the arrays with ones holding exactly {@code existing} and {@code creates}, and
+     * clears the delta and tombstones.
+     */
+    private void rebuild(List<Customer> existing, List<Customer> creates) {
+        List<Name> all = new ArrayList<>(2 * (existing.size() + creates.size()));
+        long[] newIds = new long[existing.size() + creates.size()];
+        int count = 0;
+        for (List<Customer> source : List.of(existing, creates)) {
+            for (Customer customer : source) {
+                newIds[count++] = customer.getId();
+                all.add(new Name(customer.getFirstName(), customer));
+                if (!customer.getLastName().equalsIgnoreCase(customer.getFirstName())) {
+                    all.add(new Name(customer.getLastName(), customer));
+                }
+            }
+        }
+        all.sort(NAME_ORDER);
+        Arrays.sort(newIds);
+
+        String[] newNames = new String[all.size()];
+        Customer[] newCustomers = new Customer[all.size()];
+        for (int i = 0; i < newNames.length; i++) {
+            newNames[i] = all.get(i).name();
+            newCustomers[i] = all.get(i).customer();
+        }
+        names = newNames;
+        customers = newCustomers;
+        ids = newIds;
+        added.clear();
+        addedIds.clear();
+        removed.clear();
+    }
+
+    // First position whose name sorts at or after the prefix
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(names[mid], prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(String name, Customer customer, Name other) {
+        int byName = String.CASE_INSENSITIVE_ORDER.compare(name, other.name());
+        return byName != 0 ? byName : Long.compare(customer.getId(), other.id());
+    }
+
+    private static boolean startsWith(String name, String prefix) {
+        return name.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    /**
+     * One first or last name in the delta; {@code customer} is null for search bounds.
+     */
+    private record Name(String name, long id, Customer customer) {
+
+        Name(String name, Customer customer) {
+            this(name, customer.getId(), customer);
+        }
+
+        Name(String name, long id) {
+            this(name, id, null);
+        }
+    }
+}
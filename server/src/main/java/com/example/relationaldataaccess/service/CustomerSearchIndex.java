@@ -0,0 +1,389 @@
+package com.example.relationaldataaccess.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.example.relationaldataaccess.Customer;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory trigram index over customer first and last names.
+ *
+ * Answers the same case-insensitive substring question as {@code ILIKE '%name%'} without a
+ * sequential scan, by intersecting the posting lists of the query's trigrams. Queries shorter
+ * than {@value #MIN_QUERY_LENGTH} characters have no trigram to look up, and would have to visit
+ * every posting list, so {@link #canSearch(String)} leaves them to SQL, whose {@code LIMIT} stops
+ * the scan as soon as enough of the (many) matches are found.
+ *
+ * Each posting list is a sorted {@code long[]} of customer IDs rather than a set of boxed
+ * {@code Long}s: eight bytes per entry, appended to in ID order, and intersected by walking the
+ * shortest list and binary-searching the others.
+ *
+ * The index is loaded by {@link CustomerIndexLoader} and kept current through
+ * {@link CustomerChangedEvent}s published by the write paths of this instance, and by
+ * {@link CustomerIndexRefresher} for writes made by other instances or directly in the database.
+ */
+@Component
+public class CustomerSearchIndex implements CustomerIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerSearchIndex.class);
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final Comparator<Match> BEST_FIRST = Comparator
+            .comparingInt(Match::score).reversed()
+            .thenComparingLong(match -> match.entry().customer().getId());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Posting> postings = new HashMap<>();
+
+    // Deletes that happen while the initial load is running, re-applied once it finishes
+    private final Set<Long> deletedDuringLoad = new HashSet<>();
+    private volatile boolean loading;
+    private volatile boolean ready;
+
+    @Value("${customers.search.index.enabled:true}")
+    private boolean enabled = true;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("Customer search index disabled; searches use SQL");
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void startLoad() {
+        lock.writeLock().lock();
+        try {
+            loading = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void finishLoad(List<Customer> customers) {
+        long start = System.nanoTime();
+        // One row at a time, so writes published meanwhile are not held up by the whole load
+        customers.forEach(this::add);
+        int count;
+        int trigrams;
+        lock.writeLock().lock();
+        try {
+            deletedDuringLoad.forEach(this::removeLocked);
+            deletedDuringLoad.clear();
+            postings.values().forEach(Posting::trim);
+            loading = false;
+            ready = true;
+            count = entries.size();
+            trigrams = postings.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Customer search index loaded: {} customers, {} trigrams in {} ms",
+                count, trigrams, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void failLoad() {
+        lock.writeLock().lock();
+        try {
+            deletedDuringLoad.clear();
+            loading = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether searches can be answered from the index. Until then callers should fall back to SQL.
+     */
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Whether {@link #search(String, int)} can answer {@code query}: the index is ready and the
+     * query is long enough to have a trigram. Otherwise callers should use SQL.
+     */
+    public boolean canSearch(String query) {
+        return ready && query.length() >= MIN_QUERY_LENGTH;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return entries.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] ids() {
+        long[] ids;
+        lock.readLock().lock();
+        try {
+            ids = entries.keySet().stream().mapToLong(Long::longValue).toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    @Override
+    public void add(Customer customer) {
+        if (!enabled || customer.getFirstName() == null || customer.getLastName() == null) {
+            return;
+        }
+        Entry entry = new Entry(customer,
+                customer.getFirstName().toLowerCase(Locale.ROOT),
+                customer.getLastName().toLowerCase(Locale.ROOT));
+        lock.writeLock().lock();
+        try {
+            removeLocked(customer.getId());
+            entries.put(customer.getId(), entry);
+            for (String gram : trigrams(entry.firstName())) {
+                postings.computeIfAbsent(gram, key -> new Posting()).add(customer.getId());
+            }
+            for (String gram : trigrams(entry.lastName())) {
+                postings.computeIfAbsent(gram, key -> new Posting()).add(customer.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                deletedDuringLoad.add(id);
+            }
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    @Order(CustomerChangedEvent.UPDATE_ORDER)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.getType() == CustomerChangedEvent.Type.CREATED) {
+            event.getCustomers().forEach(this::add);
+        } else {
+            event.getIds().forEach(this::remove);
+        }
+    }
+
+    /**
+     * Returns at most {@code limit} customers whose first or last name contains {@code query},
+     * ignoring case. Exact name matches rank above prefix matches, which rank above other
+     * substring matches; ties are ordered by ID.
+     *
+     * @throws IllegalArgumentException if {@code query} is shorter than {@value #MIN_QUERY_LENGTH} characters
+     */
+    public List<Customer> search(String query, int limit) {
+        if (query.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Queries need at least " + MIN_QUERY_LENGTH + " characters");
+        }
+        String needle = query.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            long[] candidates = intersect(needle);
+            if (candidates.length == 0) {
+                return List.of();
+            }
+
+            // Keep only the best 'limit' matches in a min-heap
+            PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+            for (long id : candidates) {
+                Entry entry = entries.get(id);
+                int score = Math.max(score(entry.firstName(), needle), score(entry.lastName(), needle));
+                if (score == 0) {
+                    continue;
+                }
+                best.add(new Match(entry, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+
+            List<Match> matches = new ArrayList<>(best);
+            matches.sort(BEST_FIRST);
+            List<Customer> result = new ArrayList<>(matches.size());
+            for (Match match : matches) {
+                result.add(match.entry().customer());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] intersect(String needle) {
+        List<Posting> lists = new ArrayList<>();
+        for (String gram : trigrams(needle)) {
+            Posting ids = postings.get(gram);
+            if (ids == null) {
+                return new long[0];
+            }
+            lists.add(ids);
+        }
+        // Walk the shortest posting list and probe the others
+        lists.sort(Comparator.comparingInt(Posting::size));
+        Posting shortest = lists.get(0);
+        long[] result = new long[shortest.size()];
+        int count = 0;
+        for (int j = 0; j < shortest.size(); j++) {
+            long id = shortest.get(j);
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(id);
+            }
+            if (inAll) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void removeLocked(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String gram : trigrams(entry.firstName())) {
+            removePosting(gram, id);
+        }
+        for (String gram : trigrams(entry.lastName())) {
+            removePosting(gram, id);
+        }
+    }
+
+    private void removePosting(String gram, long id) {
+        Posting ids = postings.get(gram);
+        if (ids != null && ids.remove(id) && ids.size() == 0) {
+            postings.remove(gram);
+        }
+    }
+
+    private static Set<String> trigrams(String text) {
+        if (text.length() < 3) {
+            return Collections.emptySet();
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static int score(String name, String needle) {
+        if (name.equals(needle)) {
+            return 3;
+        }
+        if (name.startsWith(needle)) {
+            return 2;
+        }
+        return name.contains(needle) ? 1 : 0;
+    }
+
+    private record Entry(Customer customer, String firstName, String lastName) {}
+
+    /**
+     * The IDs of the customers having one trigram, ascending and without duplicates.
+     */
+    private static final class Posting {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long get(int index) {
+            return ids[index];
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            // New customers have the highest IDs, so this is almost always an append
+            int at = size > 0 && ids[size - 1] >= id ? Arrays.binarySearch(ids, 0, size, id) : -size - 1;
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        // Drops the growth headroom once loaded
+        void trim() {
+            if (ids.length > size) {
+                ids = Arrays.copyOf(ids, size);
+            }
+        }
+    }
+
+    private record Match(Entry entry, int score) {}
+}
@@ -0,0 +1,281 @@
+package com.example.relationaldataaccess.service;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Writes customer query results straight from the JDBC {@link ResultSet} to the response.
+ *
+ * No {@code Customer} objects or lists are built: each row is written as tokens as soon as it is
+ * read, as JSON or, when the client asks for it, as CBOR or Smile (binary JSON encodings that are
+ * smaller and cheaper to parse). The query runs in a read-only transaction with a fetch size, which makes the
+ * PostgreSQL driver read through a server-side cursor instead of loading the whole result, so
+ * memory per request stays constant regardless of the number of rows.
+ */
+@Service
+public class CustomerStreamer {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerStreamer.class);
+
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    /**
+     * Response formats for customer lists, JSON first so that it wins for wildcards.
+     */
+    public static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR,
+            APPLICATION_SMILE);
+
+    public static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    /**
+     * Export formats by the name used in {@code ?format=}.
+     */
+    public static final Map<String, MediaType> EXPORT_FORMATS = Map.of("csv", TEXT_CSV, "ndjson",
+            MediaType.APPLICATION_NDJSON);
+
+    private static final String EXPORT_SQL = "SELECT id, first_name, last_name FROM customers WHERE id > ? ORDER BY id";
+
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${customers.streaming.fetch-size:500}")
+    private int fetchSize;
+
+    private JdbcTemplate streamingJdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        streamingJdbcTemplate.setFetchSize(fetchSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Picks the entry of {@link #FORMATS} the request's {@code Accept} header prefers, JSON if none
+     * matches.
+     */
+    public MediaType negotiate(HttpServletRequest request) {
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(request.getHeader(HttpHeaders.ACCEPT)));
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType format : FORMATS) {
+                if (type.includes(format)) {
+                    return format;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Streams the rows of {@code sql} (which must select {@code id, first_name, last_name}) to
+     * the response as an array of customers in the negotiated format. The response is committed
+     * as soon as the first buffer is full, so errors after that point can only abort the connection:
+     * the array is left unterminated and the stream open, and the servlet container then closes
+     * the connection without ending the chunked body. A client never mistakes part of the list for
+     * all of it.
+     */
+    public void write(HttpServletRequest request, HttpServletResponse response, String sql, Object... args)
+            throws IOException {
+        MediaType format = negotiate(request);
+        response.setContentType(format.toString());
+        write(response.getOutputStream(), format, sql, args);
+    }
+
+    public void write(OutputStream outputStream, MediaType format, String sql, Object... args) throws IOException {
+        JsonGenerator generator = factoryFor(format).createGenerator(outputStream);
+        // Closing after a failure must not complete the array and make a partial result look whole
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        try {
+            generator.writeStartArray();
+            query(sql, args, rs -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", rs.getLong(1));
+                    generator.writeStringField("firstName", rs.getString(2));
+                    generator.writeStringField("lastName", rs.getString(3));
+                    generator.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the response is already committed
+            log.debug("Streaming response aborted: {}", e.getMessage());
+            throw e.getCause();
+        }
+        // Only once complete: closing also ends the response body
+        generator.close();
+    }
+
+    /**
+     * Streams every customer with an ID greater than {@code afterId}, in ID order, as CSV (with an
+     * {@code id,first_name,last_name} header that {@code POST /api/customers/bulk} accepts) or as
+     * NDJSON, one object per line. Since rows come out in ID order, an interrupted export is
+     * resumed by passing the last ID received as {@code afterId}.
+     *
+     * If the query fails midway, the complete rows read so far are flushed and the stream is left
+     * open, so the servlet container aborts the connection instead of ending the body normally:
+     * the client sees a failed transfer rather than a short export, and resumes from its last ID.
+     */
+    public void export(OutputStream outputStream, MediaType format, long afterId) throws IOException {
+        try {
+            if (TEXT_CSV.equalsTypeAndSubtype(format)) {
+                exportCsv(outputStream, afterId);
+            } else {
+                exportNdjson(outputStream, afterId);
+            }
+        } catch (UncheckedIOException e) {
+            log.debug("Export aborted: {}", e.getMessage());
+            throw e.getCause();
+        }
+    }
+
+    private void exportCsv(OutputStream outputStream, long afterId) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write("id,first_name,last_name\r\n");
+        try {
+            query(EXPORT_SQL, new Object[] {afterId}, rs -> {
+                try {
+                    writer.write(Long.toString(rs.getLong(1)));
+                    writer.write(',');
+                    writeCsvField(writer, rs.getString(2));
+                    writer.write(',');
+                    writeCsvField(writer, rs.getString(3));
+                    writer.write("\r\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (DataAccessException e) {
+            flushRowsWritten(writer);
+            throw e;
+        }
+        writer.flush();
+    }
+
+    private void exportNdjson(OutputStream outputStream, long afterId) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        // No separator between root values: each object ends with its own newline
+        generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        try {
+            query(EXPORT_SQL, new Object[] {afterId}, rs -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", rs.getLong(1));
+                    generator.writeStringField("firstName", rs.getString(2));
+                    generator.writeStringField("lastName", rs.getString(3));
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (DataAccessException e) {
+            flushRowsWritten(generator);
+            throw e;
+        }
+        generator.close();
+    }
+
+    // Rows are written whole between two fetches, so the buffer only holds complete rows
+    private static void flushRowsWritten(Flushable output) {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            log.debug("Could not flush export before aborting: {}", e.getMessage());
+        }
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private JsonFactory factoryFor(MediaType format) {
+        if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(format)) {
+            return CBOR_FACTORY;
+        }
+        if (APPLICATION_SMILE.equalsTypeAndSubtype(format)) {
+            return SMILE_FACTORY;
+        }
+        return objectMapper.getFactory();
+    }
+
+    private void query(String sql, Object[] args, RowCallbackHandler handler) {
+        readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, handler));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.relationaldataaccess.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Change counter for the customer data served by this instance, used to build ETags for the
+ * read endpoints.
+ *
+ * The version is kept in memory, so producing an ETag costs no database work. It is bumped by
+ * every {@link CustomerChangedEvent} after the cache and the indexes have handled it (see
+ * {@link CustomerChangedEvent#VERSION_ORDER}), and by {@link CustomerIndexRefresher} once it has
+ * applied writes made through other instances. The ETags carry a per-process epoch, so an
+ * instance never accepts an ETag issued by another one or before a restart: a client that is
+ * switched to another instance refetches once.
+ *
+ * With read replicas, a read right after a write may still be served by a replica that has not
+ * caught up, pairing old rows with the new version. The version is bumped once more a
+ * {@code datasource.replicas.read-your-writes-window} later, which retires those ETags.
+ */
+@Component
+public class CustomerVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    @Value("${customers.etag.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${datasource.replicas.enabled:false}")
+    private boolean replicasEnabled;
+
+    @Value("${datasource.replicas.read-your-writes-window:2s}")
+    private Duration replicaLag = Duration.ofSeconds(2);
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        if (enabled && replicasEnabled && !replicaLag.isZero() && !replicaLag.isNegative()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "customer-version");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Marks the customer data as changed. Callers must have updated everything this instance
+     * keeps in memory first, for writes that bypass {@link CustomerChangedEvent} such as the
+     * sample data loaded at startup.
+     */
+    public void bump() {
+        version.incrementAndGet();
+        if (scheduler != null) {
+            scheduler.schedule(version::incrementAndGet, replicaLag.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * An ETag for the current version of one representation, identified by {@code variant} (for
+     * example the endpoint, its normalized parameters and the response format). It is weak because
+     * the gzip-compressed and plain bodies are equivalent rather than byte-identical; Tomcat also
+     * does not compress responses with strong ETags.
+     */
+    public String etag(Object... variant) {
+        return "W/\"" + epoch + "-" + version.get() + "-" + Integer.toHexString(Arrays.hashCode(variant)) + "\"";
+    }
+
+    @EventListener
+    @Order(CustomerChangedEvent.VERSION_ORDER)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        bump();
+    }
+}
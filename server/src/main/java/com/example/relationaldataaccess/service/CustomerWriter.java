@@ -0,0 +1,149 @@
+package com.example.relationaldataaccess.service;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+
+import com.example.relationaldataaccess.Customer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Inserts single customers and returns them with their generated ID.
+ *
+ * The ID comes back from the INSERT itself (generated keys; {@code RETURNING id} on PostgreSQL),
+ * so a create is one round-trip. With {@code customers.create.group-commit.enabled} concurrent
+ * creates are collected by a {@link MicroBatcher} for up to {@code max-delay} and written as one
+ * multi-row INSERT in one transaction; each caller still gets its own row back. A failing batch
+ * fails every create in it, and a caller waits at most {@code timeout} for its batch.
+ */
+@Service
+public class CustomerWriter implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO customers(first_name, last_name) VALUES ";
+    private static final String ROW = "(?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${customers.create.group-commit.enabled:false}")
+    private boolean groupCommit;
+
+    @Value("${customers.create.group-commit.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${customers.create.group-commit.max-delay:2ms}")
+    private Duration maxDelay;
+
+    @Value("${customers.create.group-commit.timeout:30s}")
+    private Duration timeout = Duration.ofSeconds(30);
+
+    private MicroBatcher<Customer, Customer> batcher;
+    private DistributionSummary batchSizes;
+
+    @PostConstruct
+    public void init() {
+        if (groupCommit) {
+            batcher = new MicroBatcher<>("customer-group-commit", maxBatchSize, maxDelay, this::insert);
+            log.info("Customer group commit enabled (max batch size {}, max delay {})", maxBatchSize, maxDelay);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchSizes = DistributionSummary.builder("customers.create.batch.size")
+                .description("Customers written per INSERT by POST /api/customers")
+                .register(registry);
+    }
+
+    /**
+     * Inserts a customer with already validated and sanitized names.
+     */
+    public Customer create(String firstName, String lastName) {
+        Customer customer = new Customer(0, firstName, lastName);
+        if (batcher == null) {
+            return insert(List.of(customer)).get(0);
+        }
+        try {
+            return batcher.submit(customer).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for customer insert", e);
+        } catch (TimeoutException e) {
+            // The batch may still be written; the caller only stops waiting for it
+            throw new QueryTimeoutException("No result for customer insert within " + timeout, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private List<Customer> insert(List<Customer> customers) {
+        StringBuilder sql = new StringBuilder(INSERT_SQL).append(ROW);
+        for (int i = 1; i < customers.size(); i++) {
+            sql.append(", ").append(ROW);
+        }
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(), new String[] {"id"});
+            int index = 1;
+            for (Customer customer : customers) {
+                ps.setString(index++, customer.getFirstName());
+                ps.setString(index++, customer.getLastName());
+            }
+            return ps;
+        }, keyHolder);
+
+        // Keys come back in VALUES order
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != customers.size()) {
+            throw new DataRetrievalFailureException("Expected " + customers.size()
+                    + " generated keys but got " + keys.size());
+        }
+        List<Customer> created = new ArrayList<>(customers.size());
+        for (int i = 0; i < customers.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            Customer customer = customers.get(i);
+            created.add(new Customer(id.longValue(), customer.getFirstName(), customer.getLastName()));
+        }
+        if (batchSizes != null) {
+            batchSizes.record(created.size());
+        }
+        eventPublisher.publishEvent(CustomerChangedEvent.created(created));
+        return created;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.relationaldataaccess.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects requests from concurrent callers and hands them to a handler in batches.
+ *
+ * A single worker thread takes the first pending request, then keeps collecting until
+ * {@code maxBatchSize} requests are pending or {@code maxDelay} has passed, and calls the handler
+ * once for the whole batch. While a batch is being handled new requests queue up, so under load
+ * batches grow on their own; a lone request waits at most {@code maxDelay}.
+ *
+ * The handler must return one result per request, in request order. If it throws, including an
+ * {@link Error}, every request in the batch fails with that exception and the worker carries on
+ * with the next batch.
+ */
+public class MicroBatcher<T, R> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MicroBatcher.class);
+
+    private final BlockingQueue<Pending<T, R>> queue = new LinkedBlockingQueue<>();
+    private final Function<List<T>, List<R>> handler;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public MicroBatcher(String name, int maxBatchSize, Duration maxDelay, Function<List<T>, List<R>> handler) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        this.handler = handler;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public CompletableFuture<R> submit(T request) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        if (!running) {
+            result.completeExceptionally(new IllegalStateException(worker.getName() + " is closed"));
+            return result;
+        }
+        queue.add(new Pending<>(request, result));
+        return result;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything submitted after the worker stopped
+        List<Pending<T, R>> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.forEach(pending -> pending.result().completeExceptionally(
+                new IllegalStateException(worker.getName() + " is closed")));
+    }
+
+    private void run() {
+        List<Pending<T, R>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending<T, R> first = running ? queue.take() : queue.poll();
+                if (first == null) {
+                    break;
+                }
+                batch.add(first);
+                collect(batch);
+            } catch (InterruptedException e) {
+                // close() was called; drain what is left before stopping
+                queue.drainTo(batch, maxBatchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                handle(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<Pending<T, R>> batch) throws InterruptedException {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            Pending<T, R> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void handle(List<Pending<T, R>> batch) {
+        List<T> requests = new ArrayList<>(batch.size());
+        for (Pending<T, R> pending : batch) {
+            requests.add(pending.request());
+        }
+        try {
+            List<R> results = handler.apply(requests);
+            if (results.size() != batch.size()) {
+                throw new IllegalStateException("Batch handler returned " + results.size()
+                        + " results for " + batch.size() + " requests");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (Throwable e) {
+            // Errors included: callers must not wait forever, and the worker has to survive for the next batch
+            if (e instanceof RuntimeException) {
+                log.debug("{} batch of {} failed: {}", worker.getName(), batch.size(), e.getMessage());
+            } else {
+                log.error("{} batch of {} failed", worker.getName(), batch.size(), e);
+            }
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    private record Pending<T, R>(T request, CompletableFuture<R> result) {}
+}
@@ -0,0 +1,197 @@
+package com.example.relationaldataaccess.web;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admission control for the customer endpoints, so a spike is turned away at the door instead
+ * of queueing on the connection pool and slowing down every request.
+ *
+ * With {@code admission.enabled}, each request first takes a token from its client's bucket
+ * ({@code admission.rate-limit.*}, keyed by the client address, which
+ * {@code server.forward-headers-strategy} takes from {@code X-Forwarded-For} behind a load balancer)
+ * and is rejected with 429 when there is none. It then takes a slot from the read (GET/HEAD and
+ * {@link ReplicaRead} handlers) or write {@link AdaptiveConcurrencyLimit} and is rejected with 503
+ * when all are taken. Both responses carry {@code Retry-After} and are sent without waiting or
+ * touching the database. {@link LongRunning} requests take a slot from a fixed limit of their own,
+ * so a few slow streams neither hold the read or write slots nor shrink those limits.
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor, MeterBinder {
+
+    private static final String LIMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".limit";
+    private static final String START_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".start";
+
+    @Value("${admission.enabled:false}")
+    private boolean enabled;
+
+    @Value("${admission.adaptive:true}")
+    private boolean adaptive;
+
+    @Value("${admission.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${admission.retry-after:1s}")
+    private Duration retryAfter;
+
+    @Value("${admission.reads.limit:20}")
+    private int readLimit;
+
+    @Value("${admission.reads.max-limit:40}")
+    private int maxReadLimit;
+
+    @Value("${admission.reads.target-latency:200ms}")
+    private Duration readTargetLatency;
+
+    @Value("${admission.writes.limit:10}")
+    private int writeLimit;
+
+    @Value("${admission.writes.max-limit:20}")
+    private int maxWriteLimit;
+
+    @Value("${admission.writes.target-latency:500ms}")
+    private Duration writeTargetLatency;
+
+    @Value("${admission.streams.limit:4}")
+    private int streamLimit;
+
+    @Value("${admission.rate-limit.enabled:false}")
+    private boolean rateLimitEnabled;
+
+    @Value("${admission.rate-limit.requests-per-second:50}")
+    private double requestsPerSecond;
+
+    @Value("${admission.rate-limit.burst:100}")
+    private int burst;
+
+    @Value("${admission.rate-limit.max-clients:100000}")
+    private long maxClients;
+
+    private AdaptiveConcurrencyLimit reads;
+    private AdaptiveConcurrencyLimit writes;
+    private AdaptiveConcurrencyLimit streams;
+    private ClientRateLimiter rateLimiter;
+    private MeterRegistry registry;
+
+    @PostConstruct
+    public void init() {
+        // Without adaptation the configured limit is fixed
+        reads = new AdaptiveConcurrencyLimit(readLimit, adaptive ? 1 : readLimit,
+                adaptive ? Math.max(readLimit, maxReadLimit) : readLimit, readTargetLatency, backoffRatio);
+        writes = new AdaptiveConcurrencyLimit(writeLimit, adaptive ? 1 : writeLimit,
+                adaptive ? Math.max(writeLimit, maxWriteLimit) : writeLimit, writeTargetLatency, backoffRatio);
+        // Fixed: with min and max equal, the latency of a stream never moves the limit
+        streams = new AdaptiveConcurrencyLimit(streamLimit, streamLimit, streamLimit, Duration.ZERO, backoffRatio);
+        if (rateLimitEnabled) {
+            rateLimiter = new ClientRateLimiter(requestsPerSecond, burst, maxClients);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("http.admission.limit", reads, AdaptiveConcurrencyLimit::getLimit)
+                .tag("class", "read").description("Current concurrency limit").register(registry);
+        Gauge.builder("http.admission.limit", writes, AdaptiveConcurrencyLimit::getLimit)
+                .tag("class", "write").description("Current concurrency limit").register(registry);
+        Gauge.builder("http.admission.in.flight", reads, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("class", "read").description("Admitted requests in progress").register(registry);
+        Gauge.builder("http.admission.in.flight", writes, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("class", "write").description("Admitted requests in progress").register(registry);
+        Gauge.builder("http.admission.in.flight", streams, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("class", "stream").description("Admitted requests in progress").register(registry);
+    }
+
+    public AdaptiveConcurrencyLimit getReadLimit() {
+        return reads;
+    }
+
+    public AdaptiveConcurrencyLimit getWriteLimit() {
+        return writes;
+    }
+
+    public AdaptiveConcurrencyLimit getStreamLimit() {
+        return streams;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!enabled || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        HandlerMethod method = (HandlerMethod) handler;
+        String limitClass = isLongRunning(request, method) ? "stream" : isRead(request, method) ? "read" : "write";
+        if (rateLimiter != null) {
+            long waitNanos = rateLimiter.tryAcquire(request.getRemoteAddr());
+            if (waitNanos > 0) {
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos, "rate-limit", limitClass);
+                return false;
+            }
+        }
+        AdaptiveConcurrencyLimit limit = switch (limitClass) {
+            case "stream" -> streams;
+            case "read" -> reads;
+            default -> writes;
+        };
+        if (!limit.tryAcquire()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, retryAfter.toNanos(), "capacity", limitClass);
+            return false;
+        }
+        request.setAttribute(LIMIT_ATTRIBUTE, limit);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        if (request.getAttribute(LIMIT_ATTRIBUTE) instanceof AdaptiveConcurrencyLimit limit) {
+            request.removeAttribute(LIMIT_ATTRIBUTE);
+            limit.release(System.nanoTime() - (long) request.getAttribute(START_ATTRIBUTE));
+        }
+    }
+
+    // POST lookups are reads too; they are marked as such for the replica routing
+    private static boolean isRead(HttpServletRequest request, HandlerMethod handler) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())
+                || handler.hasMethodAnnotation(ReplicaRead.class);
+    }
+
+    private static boolean isLongRunning(HttpServletRequest request, HandlerMethod handler) {
+        LongRunning longRunning = handler.getMethodAnnotation(LongRunning.class);
+        return longRunning != null
+                && (longRunning.param().isEmpty() || "true".equalsIgnoreCase(request.getParameter(longRunning.param())));
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos, String reason,
+            String limitClass) throws IOException {
+        if (registry != null) {
+            Counter.builder("http.admission.rejected")
+                    .tag("reason", reason)
+                    .tag("class", limitClass)
+                    .description("Requests turned away by admission control")
+                    .register(registry)
+                    .increment();
+        }
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.sendError(status.value(), status.getReasonPhrase());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.relationaldataaccess.web;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Token bucket per client: {@code requestsPerSecond} sustained, bursts of up to {@code burst}.
+ *
+ * Buckets live in a bounded Caffeine cache and expire once they would have refilled anyway, so
+ * clients that went away cost nothing.
+ */
+public class ClientRateLimiter {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private final Cache<String, Bucket> buckets;
+
+    public ClientRateLimiter(double requestsPerSecond, int burst, long maxClients) {
+        this.tokensPerNano = requestsPerSecond / 1_000_000_000d;
+        this.capacity = burst;
+        long refillNanos = (long) Math.ceil(burst / tokensPerNano);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(Math.max(refillNanos, 1_000_000_000L)))
+                .build();
+    }
+
+    /**
+     * Takes a token for {@code client}; returns 0 if one was available, otherwise the number of
+     * nanoseconds until the next one is.
+     */
+    public long tryAcquire(String client) {
+        Bucket bucket = buckets.get(client, key -> new Bucket(capacity, System.nanoTime()));
+        synchronized (bucket) {
+            long now = System.nanoTime();
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.refilledAt) * tokensPerNano);
+            bucket.refilledAt = now;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - bucket.tokens) / tokensPerNano));
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.relationaldataaccess.web;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler method whose requests last as long as the data they stream, such as unpaged
+ * lists and bulk imports. Their duration says nothing about overload, so they get a fixed
+ * concurrency limit of their own instead of feeding the adaptive ones.
+ *
+ * @see AdmissionControlInterceptor
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LongRunning {
+
+    /**
+     * A request parameter that must be {@code true} for the request to count as long-running;
+     * empty if every request to the handler does.
+     */
+    String param() default "";
+}
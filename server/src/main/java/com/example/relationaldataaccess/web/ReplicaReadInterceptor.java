@@ -0,0 +1,102 @@
+package com.example.relationaldataaccess.web;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.example.relationaldataaccess.jdbc.ReplicaRoute;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Routes {@link ReplicaRead} handlers to the read replicas.
+ *
+ * Read-your-writes is tracked per client: a write request is answered with a
+ * {@value #PRIMARY_UNTIL_COOKIE} cookie and an {@value #PRIMARY_UNTIL_HEADER} header holding the
+ * time (epoch milliseconds) until which that client's reads should stay on the primary,
+ * {@code datasource.replicas.read-your-writes-window} from now. Reads carrying either one, back
+ * to any instance, skip the replicas until then; everyone else's reads are unaffected. The cookie
+ * only serves same-origin clients; cross-origin ones echo the header. A value further ahead than
+ * one window (plus a second of clock skew between instances) is ignored, so a client cannot send
+ * one that keeps its reads on the primary for good.
+ *
+ * Only present with {@code datasource.replicas.enabled}.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReplicaReadInterceptor implements HandlerInterceptor {
+
+    public static final String PRIMARY_UNTIL_COOKIE = "primary-until";
+    public static final String PRIMARY_UNTIL_HEADER = "X-Primary-Until";
+
+    private static final long MAX_CLOCK_SKEW_MILLIS = 1000;
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final long windowMillis;
+
+    public ReplicaReadInterceptor(
+            @Value("${datasource.replicas.read-your-writes-window:2s}") Duration readYourWritesWindow) {
+        this.windowMillis = readYourWritesWindow.toMillis();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        if (method.hasMethodAnnotation(ReplicaRead.class)) {
+            long now = System.currentTimeMillis();
+            long until = primaryUntil(request);
+            if (now >= until || until > now + windowMillis + MAX_CLOCK_SKEW_MILLIS) {
+                ReplicaRoute.enter();
+            }
+        } else if (!SAFE_METHODS.contains(request.getMethod()) && windowMillis > 0) {
+            // Set before the handler runs, while the response can still take headers
+            String until = Long.toString(System.currentTimeMillis() + windowMillis);
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(PRIMARY_UNTIL_COOKIE, until)
+                    .path("/")
+                    .maxAge(Duration.ofMillis(windowMillis).plusSeconds(1))
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+            response.setHeader(PRIMARY_UNTIL_HEADER, until);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        ReplicaRoute.exit();
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        String value = request.getHeader(PRIMARY_UNTIL_HEADER);
+        if (value == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (PRIMARY_UNTIL_COOKIE.equals(cookie.getName())) {
+                    value = cookie.getValue();
+                }
+            }
+        }
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.relationaldataaccess.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.relationaldataaccess.Customer;
+import com.example.relationaldataaccess.CustomerPage;
+
+/**
+ * The customer API contract of {@code CustomerControllerTest}, served by the reactive runtime on
+ * the same H2 test database. Run with ./mvnw -Preactive test.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles({"test", "reactive"})
+public class ReactiveCustomerControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void pagesFollowTheCursor() {
+        CustomerPage first = webTestClient.get().uri("/api/customers?limit=3").exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerPage.class).returnResult().getResponseBody();
+        assertThat(first.getItems()).hasSize(3);
+        assertThat(first.getNextCursor()).isNotNull();
+
+        CustomerPage second = webTestClient.get().uri("/api/customers?limit=3&cursor={cursor}", first.getNextCursor())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerPage.class).returnResult().getResponseBody();
+        assertThat(second.getItems()).isNotEmpty();
+        assertThat(second.getItems().get(0).getId()).isGreaterThan(first.getItems().get(2).getId());
+    }
+
+    @Test
+    public void pageSizeIsCappedAndTotalIsOptional() {
+        webTestClient.get().uri("/api/customers?limit=100000&includeTotal=true").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.limit").isEqualTo(500)
+                .jsonPath("$.total").isNumber();
+    }
+
+    @Test
+    public void unpagedStreamsPlainArray() {
+        webTestClient.get().uri("/api/customers?unpaged=true").accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$").isArray()
+                .jsonPath("$[0].firstName").isNotEmpty();
+    }
+
+    @Test
+    public void batchLookupReturnsKnownIdsInRequestOrder() {
+        Customer created = webTestClient.post().uri("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\":\"Barbara\",\"lastName\":\"Liskov\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Customer.class).returnResult().getResponseBody();
+        long id = created.getId();
+
+        webTestClient.get().uri("/api/customers?ids={ids}", id + ",999999," + id + ",1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].lastName").isEqualTo("Liskov")
+                .jsonPath("$[1].id").isEqualTo(1);
+
+        webTestClient.post().uri("/api/customers/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[1, " + id + "]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].lastName").isEqualTo("Liskov");
+
+        webTestClient.get().uri("/api/customers?ids=1,,2").exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.post().uri("/api/customers/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[1, null]")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void malformedCursorIsRejected() {
+        webTestClient.get().uri("/api/customers?cursor=not-a-cursor").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void createdCustomerCanBeFoundAndDeleted() {
+        Customer created = webTestClient.post().uri("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\":\"Radia\",\"lastName\":\"<Perlman>\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Customer.class).returnResult().getResponseBody();
+        assertThat(created.getId()).isPositive();
+        assertThat(created.getLastName()).isEqualTo("Perlman");
+
+        webTestClient.get().uri("/api/customers/search?name=perlman").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].id").isEqualTo(created.getId());
+
+        webTestClient.get().uri("/api/customers/{id}", created.getId()).exchange().expectStatus().isOk();
+        webTestClient.delete().uri("/api/customers/{id}", created.getId()).exchange().expectStatus().isOk();
+        webTestClient.get().uri("/api/customers/{id}", created.getId()).exchange().expectStatus().isNotFound();
+        webTestClient.delete().uri("/api/customers/{id}", created.getId()).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    public void unchangedCustomersAreNotModified() {
+        String etag = webTestClient.get().uri("/api/customers?limit=2").exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/customers?limit=2").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.relationaldataaccess.reactive;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.relationaldataaccess.Customer;
+import com.example.relationaldataaccess.CustomerNames;
+import com.example.relationaldataaccess.CustomerPage;
+import com.example.relationaldataaccess.service.CustomerChangedEvent;
+import com.example.relationaldataaccess.service.CustomerSearchIndex;
+import com.example.relationaldataaccess.service.CustomerVersion;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux counterpart of {@code CustomerController}, active when the application runs as a
+ * reactive web application ({@code reactive} profile, built with {@code -Preactive}).
+ *
+ * Serves the same {@code /api/customers} contract: keyset pages, the unpaged list, lookup by one
+ * or several IDs, create, delete and search, with the same validation, ETags and change events. Lists and
+ * search results are returned as {@link Flux}es streamed from R2DBC with backpressure. Bulk
+ * import and the customer-by-ID cache are only available in the servlet runtime.
+ */
+@RestController
+@RequestMapping("/api/customers")
+@CrossOrigin(origins = "${cors.allowed-origins:http://localhost:5173,http://localhost:5174}")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCustomerController {
+
+    @Autowired
+    private ReactiveCustomerRepository repository;
+
+    @Autowired
+    private CustomerSearchIndex searchIndex;
+
+    @Autowired
+    private CustomerVersion customerVersion;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${customers.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${customers.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${customers.search.default-limit:50}")
+    private int defaultSearchLimit;
+
+    @Value("${customers.search.max-limit:500}")
+    private int maxSearchLimit;
+
+    @Value("${customers.lookup.max-ids:500}")
+    private int maxLookupIds;
+
+    @GetMapping(params = {"unpaged=true", "!ids"})
+    public Mono<ResponseEntity<Flux<Customer>>> getAllCustomersUnpaged(ServerWebExchange exchange) {
+        return conditional(exchange, () -> Mono.just(ResponseEntity.ok(repository.findAll())), "unpaged");
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<CustomerPage>> getAllCustomers(
+        @RequestParam(required = false) Long after,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(defaultValue = "false") boolean includeTotal,
+        ServerWebExchange exchange) {
+        long afterId = after != null ? after : 0L;
+        if (cursor != null && !cursor.isEmpty()) {
+            Long decoded = CustomerPage.decodeCursor(cursor);
+            if (decoded == null) {
+                return Mono.just(ResponseEntity.badRequest().build());
+            }
+            afterId = decoded;
+        }
+
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : defaultPageSize, maxPageSize));
+        long from = afterId;
+        return conditional(exchange, () -> page(from, pageSize, includeTotal), "page", afterId, pageSize, includeTotal);
+    }
+
+    private Mono<ResponseEntity<CustomerPage>> page(long afterId, int pageSize, boolean includeTotal) {
+        // Fetch one extra row to find out whether there is a next page
+        Mono<List<Customer>> rows = repository.findPage(afterId, pageSize + 1).collectList();
+        Mono<Long> total = includeTotal ? repository.count() : Mono.just(-1L);
+        return Mono.zip(rows, total).map(result -> {
+            List<Customer> customers = result.getT1();
+            String nextCursor = null;
+            if (customers.size() > pageSize) {
+                customers = customers.subList(0, pageSize);
+                nextCursor = CustomerPage.encodeCursor(customers.get(pageSize - 1).getId());
+            }
+            Long count = result.getT2() >= 0 ? result.getT2() : null;
+            return ResponseEntity.ok(new CustomerPage(customers, nextCursor, pageSize, count));
+        });
+    }
+
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<Flux<Customer>>> getCustomersByIds(@RequestParam List<Long> ids,
+            ServerWebExchange exchange) {
+        if (!isValidLookup(ids)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return conditional(exchange, () -> Mono.just(ResponseEntity.ok(repository.findByIds(ids))), "ids",
+                ids.toString());
+    }
+
+    @PostMapping("/lookup")
+    public Mono<ResponseEntity<Flux<Customer>>> lookupCustomers(@RequestBody List<Long> ids) {
+        if (!isValidLookup(ids)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return Mono.just(ResponseEntity.ok(repository.findByIds(ids)));
+    }
+
+    // Same rules as the servlet controller: at most max-ids IDs, none of them null
+    private boolean isValidLookup(List<Long> ids) {
+        return ids.size() <= maxLookupIds && ids.stream().noneMatch(Objects::isNull);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Customer>> getCustomerById(@PathVariable Long id, ServerWebExchange exchange) {
+        return conditional(exchange, () -> repository.findById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build()), "id", id);
+    }
+
+    @PostMapping
+    public Mono<Customer> createCustomer(@RequestBody Customer customer) {
+        String firstName = customer.getFirstName();
+        String lastName = customer.getLastName();
+        if (firstName == null || firstName.trim().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("First name cannot be empty"));
+        }
+        if (lastName == null || lastName.trim().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("Last name cannot be empty"));
+        }
+        String sanitizedFirstName = CustomerNames.sanitize(firstName);
+        String sanitizedLastName = CustomerNames.sanitize(lastName);
+        if (sanitizedFirstName.isEmpty() || sanitizedLastName.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("Names cannot be empty after sanitization"));
+        }
+
+        // Listeners write the change version through JDBC, so they must not run on an event loop
+        return repository.insert(sanitizedFirstName, sanitizedLastName)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(created -> eventPublisher.publishEvent(CustomerChangedEvent.created(List.of(created))));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteCustomer(@PathVariable Long id) {
+        return repository.delete(id).publishOn(Schedulers.boundedElastic()).map(rowsAffected -> {
+            if (rowsAffected > 0) {
+                eventPublisher.publishEvent(CustomerChangedEvent.deleted(List.of(id)));
+                return ResponseEntity.ok().<Void>build();
+            }
+            return ResponseEntity.notFound().<Void>build();
+        });
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<Flux<Customer>>> searchCustomers(
+        @RequestParam String name,
+        @RequestParam(required = false) Integer limit,
+        ServerWebExchange exchange) {
+        String sanitizedName = CustomerNames.sanitize(name);
+        if (sanitizedName.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.ok(Flux.empty()));
+        }
+
+        int maxResults = Math.max(1, Math.min(limit != null ? limit : defaultSearchLimit, maxSearchLimit));
+        return conditional(exchange, () -> Mono.just(ResponseEntity.ok(searchIndex.canSearch(sanitizedName)
+                ? Flux.fromIterable(searchIndex.search(sanitizedName, maxResults))
+                : repository.search(sanitizedName, maxResults))), "search", sanitizedName, maxResults);
+    }
+
+    /**
+     * Sets a weak ETag for the current customer change version and answers 304 if the client's
+     * copy is still current; otherwise the response of {@code response}.
+     */
+    private <T> Mono<ResponseEntity<T>> conditional(ServerWebExchange exchange,
+            Supplier<Mono<ResponseEntity<T>>> response, Object... variant) {
+        if (!customerVersion.isEnabled()) {
+            return response.get();
+        }
+        exchange.getResponse().getHeaders().set(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        return Mono.defer(() -> exchange.checkNotModified(customerVersion.etag(variant))
+                ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).<T>build())
+                : response.get());
+    }
+}
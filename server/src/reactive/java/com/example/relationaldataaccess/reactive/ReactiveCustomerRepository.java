@@ -0,0 +1,186 @@
+package com.example.relationaldataaccess.reactive;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import com.example.relationaldataaccess.Customer;
+import com.example.relationaldataaccess.CustomerNames;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Statement;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking customer queries over a pooled R2DBC connection factory.
+ *
+ * Uses the same SQL as the servlet controller. Rows are emitted as they arrive and requested
+ * in chunks of {@code customers.reactive.r2dbc.fetch-size}, so a slow client slows the query
+ * down instead of buffering the result. The connection URL defaults to
+ * {@code spring.datasource.url} with the {@code jdbc:} scheme replaced by {@code r2dbc:}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCustomerRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveCustomerRepository.class);
+
+    private static final String COLUMNS = "SELECT id, first_name, last_name FROM customers";
+
+    @Value("${customers.reactive.r2dbc.url:}")
+    private String url;
+
+    @Value("${spring.datasource.url}")
+    private String jdbcUrl;
+
+    @Value("${spring.datasource.username:}")
+    private String username;
+
+    @Value("${spring.datasource.password:}")
+    private String password;
+
+    @Value("${customers.reactive.r2dbc.pool.max-size:10}")
+    private int maxPoolSize;
+
+    @Value("${customers.reactive.r2dbc.fetch-size:500}")
+    private int fetchSize;
+
+    private ConnectionPool pool;
+
+    @PostConstruct
+    public void init() {
+        String r2dbcUrl = url.isBlank() ? toR2dbcUrl(jdbcUrl) : url;
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate();
+        if (!username.isBlank()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        pool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .maxSize(maxPoolSize)
+                .build());
+        log.info("Reactive customer repository using {} (pool max size {})", r2dbcUrl, maxPoolSize);
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.dispose();
+    }
+
+    public Flux<Customer> findPage(long afterId, int limit) {
+        return query(COLUMNS + " WHERE id > $1 ORDER BY id LIMIT $2", afterId, limit);
+    }
+
+    public Flux<Customer> findAll() {
+        return query(COLUMNS + " ORDER BY id");
+    }
+
+    public Mono<Customer> findById(long id) {
+        return query(COLUMNS + " WHERE id = $1", id).next();
+    }
+
+    /**
+     * The customers with the given IDs in the order the IDs are given, each once; unknown IDs are
+     * left out.
+     */
+    public Flux<Customer> findByIds(Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinct.isEmpty()) {
+            return Flux.empty();
+        }
+        // One placeholder per ID: the lists are short (customers.lookup.max-ids), and unlike arrays
+        // IN lists bind the same way on every R2DBC driver
+        StringJoiner placeholders = new StringJoiner(", ", " WHERE id IN (", ")");
+        for (int i = 1; i <= distinct.size(); i++) {
+            placeholders.add("$" + i);
+        }
+        return query(COLUMNS + placeholders, distinct.toArray())
+                .collectMap(Customer::getId)
+                .flatMapIterable(found -> distinct.stream().map(found::get).filter(Objects::nonNull).toList());
+    }
+
+    public Flux<Customer> search(String name, int limit) {
+        String pattern = "%" + CustomerNames.escapeLike(name) + "%";
+        return query(COLUMNS + " WHERE first_name ILIKE $1 ESCAPE '\\' OR last_name ILIKE $2 ESCAPE '\\' ORDER BY id LIMIT $3",
+                pattern, pattern, limit);
+    }
+
+    public Mono<Long> count() {
+        return Flux.usingWhen(pool.create(),
+                        connection -> Flux.from(connection.createStatement("SELECT COUNT(*) FROM customers").execute())
+                                .flatMap(result -> result.map(row -> ((Number) row.get(0)).longValue())),
+                        Connection::close)
+                .next();
+    }
+
+    public Mono<Customer> insert(String firstName, String lastName) {
+        return Flux.usingWhen(pool.create(),
+                        connection -> Flux.from(connection
+                                        .createStatement("INSERT INTO customers(first_name, last_name) VALUES ($1, $2)")
+                                        .bind(0, firstName)
+                                        .bind(1, lastName)
+                                        .returnGeneratedValues("id")
+                                        .execute())
+                                .flatMap(result -> result.map(row ->
+                                        new Customer(((Number) row.get("id")).longValue(), firstName, lastName))),
+                        Connection::close)
+                .next();
+    }
+
+    public Mono<Long> delete(long id) {
+        return Flux.usingWhen(pool.create(),
+                        connection -> Flux.from(connection.createStatement("DELETE FROM customers WHERE id = $1")
+                                        .bind(0, id)
+                                        .execute())
+                                .flatMap(result -> result.getRowsUpdated()),
+                        Connection::close)
+                .reduce(0L, Long::sum);
+    }
+
+    private Flux<Customer> query(String sql, Object... args) {
+        return Flux.usingWhen(pool.create(), connection -> {
+            Statement statement = connection.createStatement(sql).fetchSize(fetchSize);
+            for (int i = 0; i < args.length; i++) {
+                statement.bind(i, args[i]);
+            }
+            return Flux.from(statement.execute()).flatMap(result -> result.map(ReactiveCustomerRepository::toCustomer));
+        }, Connection::close);
+    }
+
+    private static Customer toCustomer(Readable row) {
+        return new Customer(((Number) row.get("id")).longValue(),
+                row.get("first_name", String.class),
+                row.get("last_name", String.class));
+    }
+
+    /**
+     * Maps a JDBC URL to its R2DBC equivalent, e.g. {@code jdbc:postgresql://host/db} to
+     * {@code r2dbc:postgresql://host/db} and {@code jdbc:h2:mem:testdb} to {@code r2dbc:h2:mem:///testdb}.
+     */
+    static String toR2dbcUrl(String jdbcUrl) {
+        if (jdbcUrl.startsWith("jdbc:h2:mem:")) {
+            return "r2dbc:h2:mem:///" + jdbcUrl.substring("jdbc:h2:mem:".length());
+        }
+        if (jdbcUrl.startsWith("jdbc:")) {
+            return "r2dbc:" + jdbcUrl.substring("jdbc:".length());
+        }
+        return jdbcUrl;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.relationaldataaccess.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springdoc.core.service.OpenAPIService;
+import org.springdoc.core.service.OperationService;
+import org.springdoc.webmvc.api.OpenApiWebMvcResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.swagger.v3.oas.models.OpenAPI;
+
+@SpringBootTest(properties = "startup.lazy-api-docs=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class LazyApiDocsTest {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void springdocIsCreatedOnFirstUse() throws Exception {
+        List<String> springdocBeans = Arrays.stream(beanFactory.getBeanDefinitionNames())
+                .filter(name -> OpenApiConfig.isSpringdoc(beanFactory.getBeanDefinition(name)))
+                .toList();
+        assertThat(springdocBeans).isNotEmpty()
+                .allMatch(name -> beanFactory.getBeanDefinition(name).isLazyInit(), "lazy");
+
+        // What scans the controllers and builds the document; Swagger UI's WebMvcConfigurer is
+        // still created with the MVC configuration
+        List<String> apiDocsBeans = apiDocsBeans();
+        assertThat(apiDocsBeans).hasSizeGreaterThanOrEqualTo(4)
+                .noneMatch(beanFactory::containsSingleton);
+
+        mockMvc.perform(get("/api/docs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.info.title").value("Customer Management API"));
+
+        assertThat(apiDocsBeans).allMatch(beanFactory::containsSingleton);
+    }
+
+    private List<String> apiDocsBeans() {
+        // Without eager init, so looking them up does not create them
+        return Stream.of(OpenApiWebMvcResource.class, OpenAPIService.class, OperationService.class, OpenAPI.class)
+                .flatMap(type -> Arrays.stream(beanFactory.getBeanNamesForType(type, true, false)))
+                .toList();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.relationaldataaccess.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.relationaldataaccess.web.AdminTokenInterceptor;
+
+/**
+ * The admin endpoints show SQL shapes and plans, so they need the admin token.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdminTokenInterceptor adminTokenInterceptor;
+
+    @Test
+    public void adminEndpointsRequireTheToken() throws Exception {
+        for (String path : new String[] {"/api/admin/queries", "/api/admin/queries/recent", "/api/admin/cache",
+                "/api/admin/suggest-index"}) {
+            mockMvc.perform(get(path))
+                    .andExpect(status().isUnauthorized())
+                    .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+            mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, "Bearer wrong-token"))
+                    .andExpect(status().isUnauthorized());
+            mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, "Bearer test-admin-token"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/admin/queries").header(HttpHeaders.AUTHORIZATION, "Bearer test-admin-token"))
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    public void adminEndpointsAreNotServedWithoutAToken() throws Exception {
+        ReflectionTestUtils.setField(adminTokenInterceptor, "token", "");
+        try {
+            mockMvc.perform(get("/api/admin/queries").header(HttpHeaders.AUTHORIZATION, "Bearer "))
+                    .andExpect(status().isNotFound());
+        } finally {
+            ReflectionTestUtils.setField(adminTokenInterceptor, "token", "test-admin-token");
+        }
+    }
+
+    @Test
+    public void corsPreflightPassesWithoutTheToken() throws Exception {
+        mockMvc.perform(options("/api/admin/queries")
+                        .header(HttpHeaders.ORIGIN, "http://localhost:5173")
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET")
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "Authorization"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+    }
+}
@@ -0,0 +1,442 @@
+package com.example.relationaldataaccess.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.relationaldataaccess.service.CustomerIndexRefresher;
+import com.example.relationaldataaccess.service.CustomerNameIndex;
+import com.example.relationaldataaccess.web.ReplicaReadInterceptor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Endpoint tests against the H2 test profile, seeded with the four development customers.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class CustomerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomerIndexRefresher indexRefresher;
+
+    @Autowired
+    private CustomerNameIndex nameIndex;
+
+    @Test
+    public void listIsPaginatedWithOpaqueCursor() throws Exception {
+        String body = mockMvc.perform(get("/api/customers").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.limit").value(3))
+                .andExpect(jsonPath("$.total").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode page = objectMapper.readTree(body);
+        String cursor = page.get("nextCursor").asText();
+        long lastId = page.get("items").get(2).get("id").asLong();
+
+        mockMvc.perform(get("/api/customers").param("cursor", cursor).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(greaterThan((int) lastId)));
+    }
+
+    @Test
+    public void lastPageHasNoCursorAndTotalIsOptIn() throws Exception {
+        mockMvc.perform(get("/api/customers").param("limit", "100000").param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.limit").value(500))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.total").isNumber());
+    }
+
+    @Test
+    public void unpagedStreamsPlainArray() throws Exception {
+        mockMvc.perform(get("/api/customers").param("unpaged", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[0].firstName").isString());
+    }
+
+    @Test
+    public void malformedCursorIsRejected() throws Exception {
+        mockMvc.perform(get("/api/customers").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void searchUsesRelevanceOrderAndLimit() throws Exception {
+        mockMvc.perform(get("/api/customers/search").param("name", "josh").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].firstName").value("Josh"));
+    }
+
+    @Test
+    public void suggestFollowsCreatesAndDeletes() throws Exception {
+        String body = mockMvc.perform(post("/api/customers").contentType("application/json")
+                        .content("{\"firstName\":\"Xiaoyu\",\"lastName\":\"Xanthos\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("id").asLong();
+
+        mockMvc.perform(get("/api/customers/suggest").param("prefix", "XIAO"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(id));
+
+        mockMvc.perform(delete("/api/customers/" + id)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/customers/suggest").param("prefix", "xiao"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    public void sqlFallbacksMatchUnderscoresLiterally() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (String firstName : List.of("Q_x", "Qzx")) {
+            String body = mockMvc.perform(post("/api/customers").contentType("application/json")
+                            .content("{\"firstName\":\"" + firstName + "\",\"lastName\":\"Wildcard\"}"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            ids.add(objectMapper.readTree(body).get("id").asLong());
+        }
+        ReflectionTestUtils.setField(nameIndex, "ready", false);
+        try {
+            // Two characters are too short for the search index, so both go to SQL
+            mockMvc.perform(get("/api/customers/search").param("name", "q_"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[*].id", contains(ids.get(0).intValue())));
+            mockMvc.perform(get("/api/customers/suggest").param("prefix", "q_"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[*].id", contains(ids.get(0).intValue())));
+        } finally {
+            ReflectionTestUtils.setField(nameIndex, "ready", true);
+            for (long id : ids) {
+                mockMvc.perform(delete("/api/customers/" + id)).andExpect(status().isOk());
+            }
+        }
+    }
+
+    @Test
+    public void exportStreamsCsvAndNdjsonFromTheGivenId() throws Exception {
+        String body = mockMvc.perform(post("/api/customers").contentType("application/json")
+                        .content("{\"firstName\":\"Frances\",\"lastName\":\"Allen, PhD\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("id").asLong();
+
+        mockMvc.perform(get("/api/customers/export").param("format", "csv").param("after", String.valueOf(id - 1)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+                .andExpect(content().string("id,first_name,last_name\r\n" + id + ",Frances,\"Allen, PhD\"\r\n"));
+
+        String ndjson = mockMvc.perform(get("/api/customers/export").param("format", "ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = ndjson.split("\n");
+        assertThat(objectMapper.readTree(lines[lines.length - 1]).get("id").asLong()).isEqualTo(id);
+        assertThat(ndjson).endsWith("}\n");
+
+        mockMvc.perform(get("/api/customers/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void batchLookupReturnsKnownIdsInRequestOrder() throws Exception {
+        String body = mockMvc.perform(post("/api/customers").contentType("application/json")
+                        .content("{\"firstName\":\"Leslie\",\"lastName\":\"Lamport\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("id").asLong();
+
+        mockMvc.perform(get("/api/customers").param("ids", id + ",999999," + id + ",1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].lastName").value("Lamport"))
+                .andExpect(jsonPath("$[1].id").value(1));
+
+        mockMvc.perform(post("/api/customers/lookup").contentType("application/json").content("[1, " + id + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].lastName").value("Lamport"));
+
+        String tooMany = LongStream.rangeClosed(1, 501)
+                .mapToObj(Long::toString).collect(Collectors.joining(","));
+        mockMvc.perform(get("/api/customers").param("ids", tooMany))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/customers").param("ids", "1,,2"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/customers/lookup").contentType("application/json").content("[1, null]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void bulkDeleteRemovesMatchingCustomersAndInvalidatesReads() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String body = mockMvc.perform(post("/api/customers").contentType("application/json")
+                            .content("{\"firstName\":\"Purge\",\"lastName\":\"Me" + i + "\"}"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            ids.add(objectMapper.readTree(body).get("id").asLong());
+        }
+        // Cached before the delete
+        mockMvc.perform(get("/api/customers/{id}", ids.get(0))).andExpect(status().isOk());
+
+        String job = mockMvc.perform(post("/api/customers/bulk-delete").contentType("application/json")
+                        .content("{\"firstName\":\"Purge\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists(HttpHeaders.LOCATION))
+                .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(job).get("id").asText();
+
+        JsonNode status = objectMapper.readTree(job);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!status.get("state").asText().equals("COMPLETED") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = objectMapper.readTree(mockMvc.perform(get("/api/customers/bulk-delete/{jobId}", jobId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+        }
+        assertThat(status.get("state").asText()).isEqualTo("COMPLETED");
+        assertThat(status.get("deleted").asLong()).isEqualTo(3);
+
+        for (Long id : ids) {
+            mockMvc.perform(get("/api/customers/{id}", id)).andExpect(status().isNotFound());
+        }
+        mockMvc.perform(post("/api/customers/bulk-delete").contentType("application/json").content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/customers/bulk-delete/{jobId}", "unknown")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void bulkImportStreamsCsvAndReportsBadRows() throws Exception {
+        String csv = "first_name,last_name\n"
+                + "Ada,Lovelace\n"
+                + "\"Grace\",\"Hopper\"\n"
+                + ",Missing\n"
+                + "Alan,Turing\n";
+
+        mockMvc.perform(post("/api/customers/bulk").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(4))
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(4));
+
+        mockMvc.perform(get("/api/customers/search").param("name", "hopper"))
+                .andExpect(jsonPath("$[0].firstName").value("Grace"));
+    }
+
+    @Test
+    public void bulkImportAcceptsNdjson() throws Exception {
+        String ndjson = "{\"firstName\":\"Barbara\",\"lastName\":\"Liskov\"}\n"
+                + "not json\n";
+
+        mockMvc.perform(post("/api/customers/bulk").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1));
+    }
+
+    @Test
+    public void bulkImportRejectsNdjsonValuesThatAreNotObjects() throws Exception {
+        String ndjson = "{\"firstName\":\"Frances\",\"lastName\":\"Allen\"}\n"
+                + "null\n"
+                + "42\n"
+                + "[\"Edsger\",\"Dijkstra\"]\n"
+                + "{\"firstName\":\"Radia\",\"lastName\":\"Perlman\"}\n";
+
+        mockMvc.perform(post("/api/customers/bulk").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(5))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.errors[*].line").value(contains(2, 3, 4)))
+                .andExpect(jsonPath("$.errors[0].message").value("Expected a JSON object"));
+    }
+
+    @Test
+    public void failedBulkImportBatchStoresNothing() throws Exception {
+        // Valid for the API, refused by the database, so the batch fails after its first inserts
+        jdbcTemplate.execute("ALTER TABLE customers ADD CONSTRAINT no_rollback CHECK (last_name <> 'Rollback')");
+        try {
+            String csv = "first_name,last_name\nBatch,Kept\nBatch,Rollback\n";
+            mockMvc.perform(post("/api/customers/bulk").contentType("text/csv").content(csv))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.imported").value(0))
+                    .andExpect(jsonPath("$.rejected").value(2));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE customers DROP CONSTRAINT no_rollback");
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers WHERE first_name = 'Batch'", Long.class))
+                .isZero();
+    }
+
+    @Test
+    public void deletedCustomerIsNotServedFromCache() throws Exception {
+        String body = mockMvc.perform(post("/api/customers").contentType("application/json")
+                        .content("{\"firstName\":\"Edsger\",\"lastName\":\"Dijkstra\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("id").asLong();
+
+        mockMvc.perform(get("/api/customers/{id}", id)).andExpect(status().isOk());
+        mockMvc.perform(delete("/api/customers/{id}", id)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/customers/{id}", id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void unchangedCustomersAreNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/customers").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/customers").param("limit", "2").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        // A different page is a different representation
+        mockMvc.perform(get("/api/customers").param("limit", "3").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void writesDoNotPinReadsToThePrimaryWithoutReplicas() throws Exception {
+        mockMvc.perform(post("/api/customers").contentType("application/json")
+                        .content("{\"firstName\":\"No\",\"lastName\":\"Replicas\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ReplicaReadInterceptor.PRIMARY_UNTIL_HEADER))
+                .andExpect(cookie().doesNotExist(ReplicaReadInterceptor.PRIMARY_UNTIL_COOKIE));
+    }
+
+    @Test
+    public void writesChangeTheEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/customers/search").param("name", "jo"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/api/customers").contentType("application/json")
+                        .content("{\"firstName\":\"Joan\",\"lastName\":\"Clarke\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/customers/search").param("name", "jo").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    public void writesThroughAnotherInstanceChangeTheEtagOnceRefreshed() throws Exception {
+        ReflectionTestUtils.invokeMethod(indexRefresher, "refresh");
+        String etag = mockMvc.perform(get("/api/customers/search").param("name", "okapi"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Another instance's write: no event reaches this one
+        jdbcTemplate.update("INSERT INTO customers(first_name, last_name) VALUES ('Okapi', 'Elsewhere')");
+        mockMvc.perform(get("/api/customers/search").param("name", "okapi").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        ReflectionTestUtils.invokeMethod(indexRefresher, "refresh");
+        mockMvc.perform(get("/api/customers/search").param("name", "okapi").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$[0].firstName").value("Okapi"));
+    }
+
+    @Test
+    public void eventStreamPushesCreates() throws Exception {
+        MvcResult events = mockMvc.perform(get("/api/customers/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(post("/api/customers").contentType("application/json")
+                        .content("{\"firstName\":\"Grace\",\"lastName\":\"Hopper\"}"))
+                .andExpect(status().isOk());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        String stream = "";
+        while (!stream.contains("Hopper") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            stream = events.getResponse().getContentAsString();
+        }
+        assertThat(events.getResponse().getContentType()).startsWith("text/event-stream");
+        assertThat(stream).contains("event:created").contains("\"lastName\":\"Hopper\"");
+    }
+
+    @Test
+    public void binaryFormatsAreNegotiated() throws Exception {
+        MvcResult page = mockMvc.perform(get("/api/customers").param("limit", "2").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn();
+        assertThat(new CBORMapper().readTree(page.getResponse().getContentAsByteArray()).get("items").size())
+                .isEqualTo(2);
+
+        // The streamed list is encoded directly from the result set
+        MvcResult unpaged = mockMvc.perform(get("/api/customers").param("unpaged", "true")
+                        .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn();
+        JsonNode customers = new SmileMapper().readTree(unpaged.getResponse().getContentAsByteArray());
+        assertThat(customers.isArray()).isTrue();
+        assertThat(customers.get(0).has("firstName")).isTrue();
+    }
+
+    @Test
+    public void eachFormatHasItsOwnEtag() throws Exception {
+        String json = mockMvc.perform(get("/api/customers/1"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/customers/1").accept("application/cbor").header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(json)));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.relationaldataaccess.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.relationaldataaccess.web.ReplicaReadInterceptor;
+
+import jakarta.servlet.http.Cookie;
+
+/**
+ * Read/write splitting with the H2 test database as primary and two more embedded H2
+ * databases as replicas, each holding one customer the primary does not have.
+ */
+@SpringBootTest(properties = {
+        "datasource.replicas.enabled=true",
+        "datasource.replicas.urls=jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:replica2;DB_CLOSE_DELAY=-1",
+        "datasource.replicas.read-your-writes-window=1h"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    public static void createReplicas() throws Exception {
+        for (String replica : new String[] {"replica1", "replica2"}) {
+            try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + replica + ";DB_CLOSE_DELAY=-1", "sa", "");
+                    Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS customers(id SERIAL PRIMARY KEY, first_name VARCHAR(255), last_name VARCHAR(255))");
+                statement.execute("INSERT INTO customers(first_name, last_name) VALUES ('Only', '" + replica + "')");
+            }
+        }
+    }
+
+    @Test
+    public void readsAlternateReplicasUntilAWriteHappens() throws Exception {
+        mockMvc.perform(get("/api/customers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].lastName").value(hasItem("replica1")));
+        mockMvc.perform(get("/api/customers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].lastName").value(hasItem("replica2")));
+
+        // Writes go to the primary, and the writing client's next reads stay there to see them
+        Cookie primaryUntil = mockMvc.perform(post("/api/customers").contentType("application/json")
+                        .content("{\"firstName\":\"Written\",\"lastName\":\"Primary\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(ReplicaReadInterceptor.PRIMARY_UNTIL_HEADER))
+                .andReturn().getResponse().getCookie(ReplicaReadInterceptor.PRIMARY_UNTIL_COOKIE);
+        mockMvc.perform(get("/api/customers").param("limit", "500").cookie(primaryUntil))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].lastName").value(hasItem("Primary")))
+                .andExpect(jsonPath("$.items[*].lastName").value(not(hasItem("replica1"))));
+
+        // Other clients keep reading from the replicas
+        mockMvc.perform(get("/api/customers").param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].lastName").value(not(hasItem("Primary"))));
+
+        // Cross-origin clients echo the header instead of the cookie; values far in the future are ignored
+        mockMvc.perform(get("/api/customers").param("limit", "500")
+                        .header(ReplicaReadInterceptor.PRIMARY_UNTIL_HEADER, primaryUntil.getValue()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].lastName").value(hasItem("Primary")));
+        mockMvc.perform(get("/api/customers").param("limit", "500")
+                        .header(ReplicaReadInterceptor.PRIMARY_UNTIL_HEADER, Long.toString(Long.MAX_VALUE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].lastName").value(not(hasItem("Primary"))));
+    }
+
+    @Test
+    public void primaryUntilIsExposedToCrossOriginClients() throws Exception {
+        mockMvc.perform(post("/api/customers").contentType("application/json")
+                        .header(HttpHeaders.ORIGIN, "http://localhost:5173")
+                        .content("{\"firstName\":\"Cross\",\"lastName\":\"Origin\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS,
+                        containsString(ReplicaReadInterceptor.PRIMARY_UNTIL_HEADER)));
+    }
+}
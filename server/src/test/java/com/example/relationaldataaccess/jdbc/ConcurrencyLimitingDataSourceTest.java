@@ -0,0 +1,54 @@
+package com.example.relationaldataaccess.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+public class ConcurrencyLimitingDataSourceTest {
+
+    private final SimpleDriverDataSource target =
+            new SimpleDriverDataSource(new org.h2.Driver(), "jdbc:h2:mem:limiter", "sa", "");
+
+    @Test
+    public void permitIsReleasedOnceWhenConnectionCloses() throws Exception {
+        ConcurrencyLimitingDataSource dataSource =
+                new ConcurrencyLimitingDataSource(target, 1, 0, Duration.ofMillis(10));
+
+        Connection connection = dataSource.getConnection();
+        assertThat(dataSource.getAvailablePermits()).isZero();
+        connection.close();
+        connection.close();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    public void callersBeyondTheWaitingLimitFailFast() throws Exception {
+        ConcurrencyLimitingDataSource dataSource =
+                new ConcurrencyLimitingDataSource(target, 1, 0, Duration.ofSeconds(10));
+
+        try (Connection held = dataSource.getConnection()) {
+            long start = System.nanoTime();
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        }
+    }
+
+    @Test
+    public void waitersTimeOut() throws Exception {
+        ConcurrencyLimitingDataSource dataSource =
+                new ConcurrencyLimitingDataSource(target, 1, 5, Duration.ofMillis(50));
+
+        try (Connection held = dataSource.getConnection()) {
+            assertThatThrownBy(dataSource::getConnection)
+                    .isInstanceOf(SQLTransientConnectionException.class)
+                    .hasMessageContaining("Timed out");
+            assertThat(dataSource.getWaiting()).isZero();
+        }
+    }
+}
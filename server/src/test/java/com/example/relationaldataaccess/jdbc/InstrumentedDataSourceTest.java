@@ -0,0 +1,66 @@
+package com.example.relationaldataaccess.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class InstrumentedDataSourceTest {
+
+    private static final String SELECT = "SELECT id, first_name FROM customers WHERE id > ? ORDER BY id";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        JdbcMetricsListener listener = new JdbcMetricsListener();
+        ReflectionTestUtils.setField(listener, "meterRegistry", registry);
+        SingleConnectionDataSource target =
+                new SingleConnectionDataSource("jdbc:h2:mem:instrumented;DB_CLOSE_DELAY=-1", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(new InstrumentedDataSource(target, () -> List.of(listener)));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customers");
+        jdbcTemplate.execute("CREATE TABLE customers(id SERIAL PRIMARY KEY, first_name VARCHAR(255))");
+    }
+
+    @Test
+    public void recordsTimingAndRowCountsPerStatementShape() {
+        jdbcTemplate.batchUpdate("INSERT INTO customers(first_name) VALUES (?)",
+                List.of(new Object[] {"a"}, new Object[] {"b"}, new Object[] {"c"}));
+        jdbcTemplate.queryForList(SELECT, 1);
+        jdbcTemplate.queryForList(SELECT, 0);
+
+        Timer select = registry.get("jdbc.statement").tag("sql", SELECT).tag("operation", "select").timer();
+        assertThat(select.count()).isEqualTo(2);
+        DistributionSummary rows = registry.get("jdbc.statement.rows").tag("sql", SELECT).summary();
+        assertThat(rows.totalAmount()).isEqualTo(5);
+
+        DistributionSummary inserted = registry.get("jdbc.statement.rows").tag("operation", "insert").summary();
+        assertThat(inserted.totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    public void failuresAreTaggedAsErrors() {
+        assertThatThrownBy(() -> jdbcTemplate.queryForList("SELECT missing FROM customers"));
+
+        assertThat(registry.get("jdbc.statement").tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void multiRowInsertsShareOneShape() {
+        assertThat(SqlShape.normalize("INSERT INTO customers(first_name, last_name) VALUES (?, ?), (?, ?),\n (?, ?)"))
+                .isEqualTo("INSERT INTO customers(first_name, last_name) VALUES (?, ?), ...");
+        assertThat(SqlShape.normalize("SELECT * FROM customers WHERE id = 42 AND first_name = 'Josh'"))
+                .isEqualTo("SELECT * FROM customers WHERE id = ? AND first_name = ?");
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.relationaldataaccess.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private final DataSource primary = h2("jdbc:h2:mem:routing-primary");
+    private final DataSource replica1 = h2("jdbc:h2:mem:routing-replica1");
+    private final DataSource replica2 = h2("jdbc:h2:mem:routing-replica2");
+    // Refuses connections: the database does not exist and may not be created
+    private final DataSource down = h2("jdbc:h2:mem:routing-down;IFEXISTS=TRUE");
+
+    @AfterEach
+    public void tearDown() {
+        ReplicaRoute.exit();
+    }
+
+    @Test
+    public void connectionsOutsideAReplicaRouteUseThePrimary() throws Exception {
+        ReadWriteRoutingDataSource dataSource = routing(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN, replica1);
+
+        assertThat(servedBy(dataSource)).isEqualTo("routing-primary");
+    }
+
+    @Test
+    public void roundRobinAlternatesReplicas() throws Exception {
+        ReadWriteRoutingDataSource dataSource =
+                routing(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN, replica1, replica2);
+
+        assertThat(List.of(readOnce(dataSource), readOnce(dataSource), readOnce(dataSource), readOnce(dataSource)))
+                .containsExactly("routing-replica1", "routing-replica2", "routing-replica1", "routing-replica2");
+    }
+
+    @Test
+    public void connectionsUnderOneRouteStayOnOneReplica() throws Exception {
+        ReadWriteRoutingDataSource dataSource =
+                routing(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN, replica1, replica2);
+        ReplicaRoute.enter();
+
+        assertThat(List.of(servedBy(dataSource), servedBy(dataSource), servedBy(dataSource)))
+                .containsExactly("routing-replica1", "routing-replica1", "routing-replica1");
+        assertThat(readOnce(dataSource)).isEqualTo("routing-replica2");
+    }
+
+    @Test
+    public void leastConnectionsAvoidsTheBusyReplica() throws Exception {
+        ReadWriteRoutingDataSource dataSource =
+                routing(ReadWriteRoutingDataSource.Balancing.LEAST_CONNECTIONS, replica1, replica2);
+        ReplicaRoute.enter();
+
+        try (Connection held = dataSource.getConnection()) {
+            String busy = held.getMetaData().getURL().substring("jdbc:h2:mem:".length());
+            for (int i = 0; i < 4; i++) {
+                assertThat(readOnce(dataSource)).isNotEqualTo(busy);
+            }
+        }
+    }
+
+    @Test
+    public void unhealthyReplicaIsSkippedAndPrimaryIsTheLastResort() throws Exception {
+        ReadWriteRoutingDataSource dataSource =
+                routing(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN, down, replica2);
+
+        assertThat(readOnce(dataSource)).isEqualTo("routing-replica2");
+        assertThat(readOnce(dataSource)).isEqualTo("routing-replica2");
+        assertThat(dataSource.getHealthyReplicas()).containsExactly("replica-2");
+
+        ReadWriteRoutingDataSource allDown = routing(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN, down);
+        assertThat(readOnce(allDown)).isEqualTo("routing-primary");
+        assertThat(allDown.getHealthyReplicas()).isEmpty();
+    }
+
+    @Test
+    public void closeClosesTheReplicaPoolsButNotThePrimary() throws Exception {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:routing-replica1");
+        ReadWriteRoutingDataSource dataSource = routing(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN, pool);
+
+        dataSource.close();
+
+        assertThat(pool.isClosed()).isTrue();
+        assertThat(servedBy(dataSource)).isEqualTo("routing-primary");
+    }
+
+    private ReadWriteRoutingDataSource routing(ReadWriteRoutingDataSource.Balancing balancing, DataSource... replicas) {
+        return new ReadWriteRoutingDataSource(primary, List.of(replicas), balancing, Duration.ofMinutes(1));
+    }
+
+    // One connection under a fresh route, as a single read request would take it
+    private static String readOnce(DataSource dataSource) throws SQLException {
+        ReplicaRoute.enter();
+        try {
+            return servedBy(dataSource);
+        } finally {
+            ReplicaRoute.exit();
+        }
+    }
+
+    private static String servedBy(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            String url = connection.getMetaData().getURL();
+            return url.substring("jdbc:h2:mem:".length());
+        }
+    }
+
+    private static DataSource h2(String url) {
+        return new SimpleDriverDataSource(new org.h2.Driver(), url, "sa", "");
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.relationaldataaccess.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class SlowQueryListenerTest {
+
+    private static final String SELECT = "SELECT id, first_name FROM customers WHERE id > ? ORDER BY id LIMIT ?";
+
+    private SlowQueryListener listener;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        listener = new SlowQueryListener();
+        ReflectionTestUtils.setField(listener, "ringSize", 4);
+        // Every statement counts as slow
+        ReflectionTestUtils.setField(listener, "threshold", Duration.ZERO);
+        SingleConnectionDataSource target =
+                new SingleConnectionDataSource("jdbc:h2:mem:slowqueries;DB_CLOSE_DELAY=-1", "sa", "", true);
+        InstrumentedDataSource dataSource = new InstrumentedDataSource(target, () -> List.of(listener));
+        ReflectionTestUtils.setField(listener, "dataSource", dataSource);
+        listener.init();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customers");
+        jdbcTemplate.execute("CREATE TABLE customers(id SERIAL PRIMARY KEY, first_name VARCHAR(255))");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        listener.close();
+    }
+
+    @Test
+    public void keepsTheLatestStatementsNewestFirst() {
+        for (int i = 0; i < 6; i++) {
+            jdbcTemplate.update("INSERT INTO customers(first_name) VALUES (?)", "c" + i);
+        }
+        jdbcTemplate.queryForList(SELECT, 2, 10);
+
+        List<SlowQueryListener.Recent> recent = listener.recent(10);
+        assertThat(recent).hasSize(4);
+        assertThat(recent.get(0).shape()).isEqualTo(SELECT);
+        assertThat(recent.get(0).binds()).isEqualTo(2);
+        assertThat(recent.get(0).rows()).isEqualTo(4);
+        assertThat(recent.get(1).shape()).startsWith("INSERT");
+        assertThat(recent.get(0).seq()).isGreaterThan(recent.get(1).seq());
+        assertThat(listener.recent(2)).hasSize(2);
+    }
+
+    @Test
+    public void aggregatesPerShapeAndSamplesPlansOfSlowReads() throws InterruptedException {
+        jdbcTemplate.update("INSERT INTO customers(first_name) VALUES (?)", "a");
+        jdbcTemplate.update("INSERT INTO customers(first_name) VALUES (?)", "b");
+        jdbcTemplate.queryForList(SELECT, 0, 10);
+        jdbcTemplate.queryForList(SELECT, 1, 10);
+
+        SlowQueryListener.ShapeStats select = waitForPlan(SELECT);
+        assertThat(select.count()).isEqualTo(2);
+        assertThat(select.rows()).isEqualTo(3);
+        assertThat(select.slow()).isEqualTo(2);
+        assertThat(select.errors()).isZero();
+        // H2's EXPLAIN ANALYZE output names the table and the rows it scanned
+        assertThat(select.plan()).containsIgnoringCase("customers").contains("scanCount");
+
+        SlowQueryListener.ShapeStats insert = waitForPlan("INSERT INTO customers(first_name) VALUES (?)");
+        assertThat(insert.count()).isEqualTo(2);
+        assertThat(insert.rows()).isEqualTo(2);
+        // Writes are explained without ANALYZE, so they did not run a third time
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers", Long.class)).isEqualTo(2);
+        // The explain statements themselves are not recorded
+        assertThat(listener.shapes()).noneMatch(stats -> stats.shape().startsWith("EXPLAIN"));
+    }
+
+    @Test
+    public void onlyBoundedPlainSelectsAreExplainedWithAnalyze() {
+        assertThat(SlowQueryListener.explainPrefix("PostgreSQL", "select", SELECT))
+                .isEqualTo("EXPLAIN (ANALYZE, BUFFERS) ");
+        assertThat(SlowQueryListener.explainPrefix("H2", "select", SELECT)).isEqualTo("EXPLAIN ANALYZE ");
+        for (String sql : List.of(
+                "SELECT id FROM customers ORDER BY id LIMIT ? OFFSET ?",
+                "SELECT id FROM customers ORDER BY id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+                "SELECT c.id FROM (SELECT id FROM customers WHERE first_name = ?) c ORDER BY c.id LIMIT 10;")) {
+            assertThat(SlowQueryListener.explainPrefix("H2", "select", sql)).as(sql).isEqualTo("EXPLAIN ANALYZE ");
+        }
+
+        // Each of these would write, lock or stream the whole table a second time
+        for (String sql : List.of(
+                "WITH d AS (DELETE FROM customers WHERE id = ANY(?) RETURNING id) SELECT id FROM d LIMIT 10",
+                "SELECT id FROM customers WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE",
+                "SELECT id FROM customers WHERE id > ? LIMIT ? FOR NO KEY UPDATE",
+                "SELECT id FROM customers WHERE id > ? LIMIT ? for share",
+                "SELECT id, first_name, last_name FROM customers WHERE id > ? ORDER BY id",
+                // A limit that does not bound the statement as a whole
+                "SELECT id FROM customers WHERE id IN (SELECT id FROM customers ORDER BY id LIMIT 10)",
+                "SELECT c.id FROM (SELECT id FROM customers LIMIT 10) c CROSS JOIN customers d",
+                "SELECT id FROM customers WHERE first_name <> 'LIMIT 5'",
+                "SELECT id FROM customers LIMIT ALL",
+                "DELETE FROM customers WHERE id = ANY(?)")) {
+            String operation = SqlShape.operation(sql);
+            assertThat(SlowQueryListener.explainPrefix("PostgreSQL", operation, sql)).as(sql).isEqualTo("EXPLAIN ");
+        }
+    }
+
+    @Test
+    public void unboundedReadsAreNotRunAgain() throws InterruptedException {
+        String export = "SELECT id, first_name FROM customers WHERE id > ? ORDER BY id";
+        jdbcTemplate.queryForList(export, 0);
+
+        // Plain EXPLAIN: H2 shows the plan without the row counts of an actual run
+        assertThat(waitForPlan(export).plan()).containsIgnoringCase("customers").doesNotContain("scanCount");
+    }
+
+    private SlowQueryListener.ShapeStats waitForPlan(String shape) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            SlowQueryListener.ShapeStats stats = listener.shapes().stream()
+                    .filter(candidate -> candidate.shape().equals(shape))
+                    .findFirst().orElseThrow();
+            if (stats.plan() != null) {
+                return stats;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("No plan sampled for " + shape);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.relationaldataaccess.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.relationaldataaccess.BulkDeleteJob;
+import com.example.relationaldataaccess.BulkDeleteRequest;
+
+/**
+ * Bulk delete jobs against the H2 test profile, one customer per chunk so they can be watched.
+ */
+@SpringBootTest(properties = {
+        "customers.delete.chunk-size=1",
+        "customers.delete.chunk-pause=100ms",
+        "customers.delete.max-queued-jobs=1"
+})
+@ActiveProfiles("test")
+public class CustomerBulkDeleteServiceTest {
+
+    @Autowired
+    private CustomerBulkDeleteService bulkDeleteService;
+
+    @Autowired
+    private CustomerWriter customerWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void cancelledJobStopsBetweenChunks() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(customerWriter.create("Cancel", "Me" + i).getId());
+        }
+        BulkDeleteRequest request = new BulkDeleteRequest();
+        request.setIds(ids);
+
+        String jobId = bulkDeleteService.submit(request).getId();
+        BulkDeleteJob job = await(jobId, status -> status.getDeleted() >= 1);
+        bulkDeleteService.cancel(jobId);
+        job = await(jobId, status -> status.getFinishedAt() != null);
+
+        assertThat(job.getState()).isEqualTo(BulkDeleteJob.State.CANCELLED);
+        assertThat(job.getDeleted()).isBetween(1L, 9L);
+        assertThat(job.getRequested()).isEqualTo(10);
+        Long remaining = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM customers WHERE first_name = 'Cancel'", Long.class);
+        assertThat(remaining).isEqualTo(10 - job.getDeleted());
+    }
+
+    @Test
+    public void jobsAreVisibleToAndCancellableFromOtherInstances() throws Exception {
+        List<Long> ids = createCustomers("Remote", 10);
+        BulkDeleteRequest request = new BulkDeleteRequest();
+        request.setIds(ids);
+
+        String jobId = bulkDeleteService.submit(request).getId();
+        await(jobId, status -> status.getDeleted() >= 1);
+        // As DELETE /bulk-delete/{id} on another instance would
+        jdbcTemplate.update("UPDATE customer_delete_jobs SET cancel_requested = TRUE WHERE id = ?", jobId);
+        BulkDeleteJob job = await(jobId, status -> status.getFinishedAt() != null);
+
+        assertThat(job.getState()).isEqualTo(BulkDeleteJob.State.CANCELLED);
+        Long saved = jdbcTemplate.queryForObject(
+                "SELECT deleted FROM customer_delete_jobs WHERE id = ?", Long.class, jobId);
+        assertThat(saved).isEqualTo(job.getDeleted());
+        // Served from the table once the job is no longer held in memory
+        assertThat(bulkDeleteService.get(jobId)).get()
+                .satisfies(status -> assertThat(status.getRequested()).isEqualTo(10))
+                .satisfies(status -> assertThat(status.getState()).isEqualTo(BulkDeleteJob.State.CANCELLED));
+    }
+
+    @Test
+    public void jobsBeyondTheQueueAreRejected() throws Exception {
+        List<String> accepted = new ArrayList<>();
+        try {
+            // One job runs, one waits in the queue of one
+            for (int i = 0; i < 2; i++) {
+                BulkDeleteRequest request = new BulkDeleteRequest();
+                request.setIds(createCustomers("Queued" + i, 5));
+                accepted.add(bulkDeleteService.submit(request).getId());
+            }
+            BulkDeleteRequest rejected = new BulkDeleteRequest();
+            rejected.setIds(createCustomers("Rejected", 1));
+
+            assertThatThrownBy(() -> bulkDeleteService.submit(rejected)).isInstanceOf(RejectedExecutionException.class);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_delete_jobs WHERE id IN (?, ?)",
+                    Long.class, accepted.get(0), accepted.get(1))).isEqualTo(2);
+        } finally {
+            for (String jobId : accepted) {
+                bulkDeleteService.cancel(jobId);
+                await(jobId, status -> status.getFinishedAt() != null);
+            }
+        }
+    }
+
+    private List<Long> createCustomers(String firstName, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(customerWriter.create(firstName, "Me" + i).getId());
+        }
+        return ids;
+    }
+
+    private BulkDeleteJob await(String jobId, Predicate<BulkDeleteJob> condition)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        BulkDeleteJob job = bulkDeleteService.get(jobId).orElseThrow();
+        while (!condition.test(job) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = bulkDeleteService.get(jobId).orElseThrow();
+        }
+        return job;
+    }
+}
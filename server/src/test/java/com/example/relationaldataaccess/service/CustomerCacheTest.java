@@ -0,0 +1,103 @@
+package com.example.relationaldataaccess.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.relationaldataaccess.Customer;
+import com.example.relationaldataaccess.jdbc.ReplicaRoute;
+
+public class CustomerCacheTest {
+
+    private CustomerCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new CustomerCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ZERO);
+        cache.init();
+    }
+
+    @Test
+    public void concurrentMissesForTheSameIdLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<Customer>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(1L, id -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return Optional.of(new Customer(id, "John", "Woo"));
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Optional<Customer>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isPresent();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.stats().get("hitCount")).isEqualTo(7L);
+    }
+
+    @Test
+    public void writesInvalidateCachedEntries() {
+        assertThat(cache.get(5L, id -> Optional.empty())).isEmpty();
+
+        cache.onCustomerChanged(CustomerChangedEvent.created(List.of(new Customer(5L, "Ada", "Lovelace"))));
+
+        assertThat(cache.get(5L, id -> Optional.of(new Customer(id, "Ada", "Lovelace")))).isPresent();
+    }
+
+    @Test
+    public void missesOnAReplicaAreNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        ReplicaRoute.enter();
+        try {
+            for (int i = 0; i < 2; i++) {
+                assertThat(cache.get(6L, id -> {
+                    loads.incrementAndGet();
+                    return Optional.empty();
+                })).isEmpty();
+            }
+            assertThat(cache.getAll(Set.of(6L, 7L), ids -> Map.of(6L, Optional.empty(),
+                    7L, Optional.of(new Customer(7L, "Grace", "Hopper"))))).doesNotContainKey(6L).containsKey(7L);
+        } finally {
+            ReplicaRoute.exit();
+        }
+        assertThat(loads.get()).isEqualTo(2);
+
+        // Once the replica has caught up, the customer is found
+        assertThat(cache.get(6L, id -> Optional.of(new Customer(id, "Ada", "Lovelace")))).isPresent();
+        assertThat(cache.get(7L, id -> Optional.empty())).isPresent();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.relationaldataaccess.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.relationaldataaccess.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class CustomerEventStreamTest {
+
+    private CustomerEventStream stream;
+
+    @BeforeEach
+    public void setUp() {
+        stream = new CustomerEventStream();
+        ReflectionTestUtils.setField(stream, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(stream, "bufferSize", 3);
+        ReflectionTestUtils.setField(stream, "queueSize", 8);
+        ReflectionTestUtils.setField(stream, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(stream, "heartbeatInterval", Duration.ofMinutes(1));
+        stream.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        stream.close();
+    }
+
+    @Test
+    public void liveEventsAreDeliveredInOrder() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        stream.register(emitter, null);
+
+        stream.onCustomerChanged(CustomerChangedEvent.created(List.of(new Customer(7, "John", "Woo"))));
+        stream.onCustomerChanged(CustomerChangedEvent.deleted(List.of(7L)));
+
+        List<String> events = emitter.await(2);
+        assertThat(events.get(0)).contains("event:created").contains("\"firstName\":\"John\"");
+        assertThat(events.get(1)).contains("event:deleted").contains("data:[7]");
+    }
+
+    @Test
+    public void reconnectReplaysMissedEvents() throws Exception {
+        RecordingEmitter first = new RecordingEmitter(null);
+        stream.register(first, null);
+        publishDeletes(1, 2, 3);
+        List<String> seen = first.await(3);
+
+        RecordingEmitter resumed = new RecordingEmitter(null);
+        stream.register(resumed, idOf(seen.get(0)));
+
+        List<String> replayed = resumed.await(2);
+        assertThat(replayed).containsExactly(seen.get(1), seen.get(2));
+    }
+
+    @Test
+    public void lostOrForeignEventIdsGetAReset() throws Exception {
+        RecordingEmitter first = new RecordingEmitter(null);
+        stream.register(first, null);
+        publishDeletes(1, 2, 3, 4, 5);
+        String oldest = idOf(first.await(5).get(0));
+
+        RecordingEmitter tooOld = new RecordingEmitter(null);
+        stream.register(tooOld, oldest);
+        assertThat(tooOld.await(1).get(0)).contains("event:reset");
+
+        RecordingEmitter previousProcess = new RecordingEmitter(null);
+        stream.register(previousProcess, "abc-2");
+        assertThat(previousProcess.await(1).get(0)).contains("event:reset");
+    }
+
+    @Test
+    public void slowSubscriberIsDisconnectedWithoutHoldingUpOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        stream.register(slow, null);
+        stream.register(fast, null);
+
+        // The slow subscriber blocks on the first send; its queue of 8 then overflows, while the
+        // fast one keeps up
+        for (int i = 1; i <= 12; i++) {
+            publishDeletes(i);
+            fast.await(i);
+        }
+
+        assertThat(fast.await(12)).hasSize(12);
+        assertThat(stream.getSubscriberCount()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    public void subscriberStalledInASendIsDropped() throws Exception {
+        stream.close();
+        ReflectionTestUtils.setField(stream, "sendTimeout", Duration.ofMillis(100));
+        stream.init();
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        stream.register(stalled, null);
+
+        // One event, far below the queue size: only the send timeout can tell it is stuck
+        publishDeletes(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (stream.getSubscriberCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(stream.getSubscriberCount()).isZero();
+        release.countDown();
+        // Completed by the sender once its send returns
+        assertThat(stalled.completed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private void publishDeletes(long... ids) {
+        for (long id : ids) {
+            stream.onCustomerChanged(CustomerChangedEvent.deleted(List.of(id)));
+        }
+    }
+
+    private static String idOf(String event) {
+        return event.substring(event.indexOf("id:") + 3, event.indexOf('\n', event.indexOf("id:")));
+    }
+
+    /**
+     * Records each sent event as SSE text; optionally blocks every send until released.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            events.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            super.complete();
+            completed.countDown();
+        }
+
+        List<String> await(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(events).hasSizeGreaterThanOrEqualTo(count);
+            return events;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.relationaldataaccess.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.relationaldataaccess.Customer;
+
+/**
+ * Both indexes are loaded from one read of the table, and writes published while it runs survive it.
+ */
+public class CustomerIndexLoaderTest {
+
+    private final AtomicInteger reads = new AtomicInteger();
+
+    private JdbcTemplate jdbcTemplate;
+    private CustomerSearchIndex searchIndex;
+    private CustomerNameIndex nameIndex;
+    private CustomerIndexLoader loader;
+    private Runnable duringRead = () -> {};
+
+    @BeforeEach
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:indexloader;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource) {
+            @Override
+            public void query(String sql, RowCallbackHandler rch) {
+                reads.incrementAndGet();
+                super.query(sql, rch);
+                duringRead.run();
+            }
+        };
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customers");
+        jdbcTemplate.execute("CREATE TABLE customers(id SERIAL PRIMARY KEY, first_name VARCHAR(255), last_name VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO customers(first_name, last_name) VALUES "
+                + "('John', 'Woo'), ('Josh', 'Bloch'), ('Josh', 'Long'), ('Nameless', NULL)");
+
+        searchIndex = new CustomerSearchIndex();
+        nameIndex = new CustomerNameIndex();
+        loader = new CustomerIndexLoader();
+        ReflectionTestUtils.setField(loader, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(loader, "indexes", List.of(searchIndex, nameIndex));
+    }
+
+    @Test
+    public void oneReadLoadsBothIndexes() {
+        loader.load();
+
+        assertThat(reads).hasValue(1);
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(nameIndex.isReady()).isTrue();
+        assertThat(ids(searchIndex.search("josh", 10))).containsExactly(2L, 3L);
+        assertThat(ids(nameIndex.suggest("jo", 10))).containsExactly(1L, 2L, 3L);
+        assertThat(nameIndex.ids()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void disabledIndexesAreNotLoaded() {
+        ReflectionTestUtils.setField(searchIndex, "enabled", false);
+        ReflectionTestUtils.setField(nameIndex, "enabled", false);
+
+        loader.load();
+
+        assertThat(reads).hasValue(0);
+        assertThat(searchIndex.isReady()).isFalse();
+        assertThat(nameIndex.isReady()).isFalse();
+    }
+
+    @Test
+    public void writesPublishedDuringTheReadAreKept() {
+        duringRead = () -> {
+            publish(CustomerChangedEvent.deleted(List.of(2L)));
+            publish(CustomerChangedEvent.created(List.of(new Customer(5, "Joshua", "Late"))));
+        };
+
+        loader.load();
+
+        assertThat(ids(searchIndex.search("josh", 10))).containsExactly(3L, 5L);
+        assertThat(ids(nameIndex.suggest("josh", 10))).containsExactly(3L, 5L);
+    }
+
+    @Test
+    public void failedReadLeavesTheIndexesToSql() {
+        jdbcTemplate.execute("DROP TABLE customers");
+
+        loader.load();
+
+        assertThat(searchIndex.isReady()).isFalse();
+        assertThat(nameIndex.isReady()).isFalse();
+        assertThat(searchIndex.size()).isZero();
+    }
+
+    private void publish(CustomerChangedEvent event) {
+        searchIndex.onCustomerChanged(event);
+        nameIndex.onCustomerChanged(event);
+    }
+
+    private static List<Long> ids(List<Customer> customers) {
+        return customers.stream().map(Customer::getId).toList();
+    }
+}
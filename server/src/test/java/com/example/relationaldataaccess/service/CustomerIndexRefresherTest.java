@@ -0,0 +1,68 @@
+package com.example.relationaldataaccess.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.relationaldataaccess.Customer;
+
+/**
+ * Writes made straight through SQL, as another instance would, reach the indexes on the next run.
+ */
+@SpringBootTest(properties = "customers.index.refresh-interval=0")
+@ActiveProfiles("test")
+public class CustomerIndexRefresherTest {
+
+    @Autowired
+    private CustomerIndexRefresher refresher;
+
+    @Autowired
+    private CustomerSearchIndex searchIndex;
+
+    @Autowired
+    private CustomerNameIndex nameIndex;
+
+    @Autowired
+    private CustomerWriter customerWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void refreshAddsCustomersCreatedElsewhere() {
+        refresher.refresh();
+        jdbcTemplate.update("INSERT INTO customers(first_name, last_name) VALUES ('Elsewhere', 'Quokkason')");
+
+        assertThat(searchIndex.search("quokka", 10)).isEmpty();
+        assertThat(nameIndex.suggest("quokka", 10)).isEmpty();
+        refresher.refresh();
+        assertThat(searchIndex.search("quokka", 10)).extracting(Customer::getFirstName).containsExactly("Elsewhere");
+        assertThat(nameIndex.suggest("quokka", 10)).extracting(Customer::getFirstName).containsExactly("Elsewhere");
+    }
+
+    @Test
+    public void reconcileRemovesDeletedAndAddsLateCustomers() {
+        Customer deleted = customerWriter.create("Wombat", "Deleted");
+        Customer late = customerWriter.create("Wombat", "Late");
+        refresher.refresh();
+        jdbcTemplate.update("DELETE FROM customers WHERE id = ?", deleted.getId());
+        // Below the highest ID already seen, so only the reconcile finds it
+        searchIndex.remove(late.getId());
+
+        refresher.refresh();
+        assertThat(ids(searchIndex.search("wombat", 10))).containsExactly(deleted.getId());
+        refresher.reconcile();
+        assertThat(ids(searchIndex.search("wombat", 10))).containsExactly(late.getId());
+        assertThat(ids(nameIndex.suggest("wombat", 10))).containsExactly(late.getId());
+    }
+
+    private static List<Long> ids(List<Customer> customers) {
+        return customers.stream().map(Customer::getId).toList();
+    }
+}
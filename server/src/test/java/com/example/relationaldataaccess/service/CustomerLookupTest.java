@@ -0,0 +1,78 @@
+package com.example.relationaldataaccess.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.relationaldataaccess.Customer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesced lookups against the H2 test profile, with the cache out of the way.
+ */
+@SpringBootTest(properties = {
+        "customers.cache.enabled=false",
+        "customers.lookup.coalescing.enabled=true",
+        "customers.lookup.coalescing.max-delay=50ms"
+})
+@ActiveProfiles("test")
+public class CustomerLookupTest {
+
+    @Autowired
+    private CustomerLookup customerLookup;
+
+    @Autowired
+    private CustomerWriter customerWriter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void concurrentLookupsShareQueries() throws Exception {
+        List<Customer> customers = List.of(customerWriter.create("Coalesced", "A"),
+                customerWriter.create("Coalesced", "B"), customerWriter.create("Coalesced", "C"));
+        DistributionSummary batchSizes = meterRegistry.get("customers.lookup.batch.size").summary();
+        long queriesBefore = batchSizes.count();
+
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Optional<Customer>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                // Every fourth lookup is for an ID that does not exist
+                long id = i % 4 == 3 ? -1 : customers.get(i % 4).getId();
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return customerLookup.findById(id);
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < threads; i++) {
+                Optional<Customer> found = futures.get(i).get();
+                if (i % 4 == 3) {
+                    assertThat(found).isEmpty();
+                } else {
+                    assertThat(found.map(Customer::getLastName)).contains(customers.get(i % 4).getLastName());
+                }
+            }
+            assertThat(batchSizes.count() - queriesBefore).isLessThan(threads);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
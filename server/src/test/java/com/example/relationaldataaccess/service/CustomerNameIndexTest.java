@@ -0,0 +1,66 @@
+package com.example.relationaldataaccess.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.relationaldataaccess.Customer;
+
+public class CustomerNameIndexTest {
+
+    private CustomerNameIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new CustomerNameIndex();
+        // Merge after every few changes so both the sorted arrays and the delta are exercised
+        ReflectionTestUtils.setField(index, "mergeThreshold", 3);
+        index.add(new Customer(1, "John", "Woo"));
+        index.add(new Customer(2, "Jeff", "Dean"));
+        index.add(new Customer(3, "Josh", "Bloch"));
+        index.add(new Customer(4, "Josh", "Long"));
+        index.add(new Customer(5, "Al", "Johnson"));
+    }
+
+    @Test
+    public void matchesPrefixesOfEitherNameIgnoringCase() {
+        assertThat(ids(index.suggest("JO", 10))).containsExactly(1L, 5L, 3L, 4L);
+        assertThat(ids(index.suggest("lo", 10))).containsExactly(4L);
+        assertThat(ids(index.suggest("oh", 10))).isEmpty();
+        assertThat(ids(index.suggest("johnsonx", 10))).isEmpty();
+    }
+
+    @Test
+    public void honorsLimitAndReturnsEachCustomerOnce() {
+        index.add(new Customer(6, "Dana", "Dane"));
+
+        assertThat(ids(index.suggest("j", 2))).containsExactly(2L, 1L);
+        assertThat(ids(index.suggest("dan", 10))).containsExactly(6L);
+    }
+
+    @Test
+    public void followsCreatesAndDeletesAcrossMerges() {
+        index.remove(3);
+        index.add(new Customer(7, "Jo", "March"));
+        assertThat(ids(index.suggest("jo", 10))).containsExactly(7L, 1L, 5L, 4L);
+        assertThat(index.ids()).containsExactly(1, 2, 4, 5, 7);
+        assertThat(index.contains(3)).isFalse();
+        assertThat(index.contains(7)).isTrue();
+
+        index.remove(7);
+        index.remove(1);
+        index.add(new Customer(8, "Johanna", "Sebastian"));
+        index.add(new Customer(9, "Ada", "Jones"));
+        assertThat(ids(index.suggest("jo", 10))).containsExactly(8L, 5L, 9L, 4L);
+        assertThat(index.size()).isEqualTo(5);
+        assertThat(index.ids()).containsExactly(2, 4, 5, 8, 9);
+    }
+
+    private static List<Long> ids(List<Customer> customers) {
+        return customers.stream().map(Customer::getId).toList();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.relationaldataaccess.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.relationaldataaccess.Customer;
+
+public class CustomerSearchIndexTest {
+
+    private CustomerSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new CustomerSearchIndex();
+        index.add(new Customer(1, "John", "Woo"));
+        index.add(new Customer(2, "Jeff", "Dean"));
+        index.add(new Customer(3, "Josh", "Bloch"));
+        index.add(new Customer(4, "Josh", "Long"));
+        index.add(new Customer(5, "Al", "Johnson"));
+    }
+
+    @Test
+    public void findsSubstringsIgnoringCase() {
+        assertThat(ids(index.search("LOC", 10))).containsExactly(3L);
+        assertThat(ids(index.search("EAN", 10))).containsExactly(2L);
+        assertThat(ids(index.search("zzz", 10))).isEmpty();
+    }
+
+    @Test
+    public void shortQueriesAreLeftToSql() {
+        ReflectionTestUtils.setField(index, "ready", true);
+
+        assertThat(index.canSearch("woo")).isTrue();
+        assertThat(index.canSearch("al")).isFalse();
+        assertThatIllegalArgumentException().isThrownBy(() -> index.search("w", 10));
+    }
+
+    @Test
+    public void ranksExactThenPrefixThenSubstringAndHonorsLimit() {
+        index.add(new Customer(7, "Lojoh", "Brown"));
+
+        // "josh" is an exact first name for 3 and 4; "John"/"Johnson" only share the prefix "joh"
+        assertThat(ids(index.search("josh", 10))).containsExactly(3L, 4L);
+        assertThat(ids(index.search("joh", 10))).containsExactly(1L, 5L, 7L);
+        assertThat(ids(index.search("joh", 1))).containsExactly(1L);
+    }
+
+    @Test
+    public void removedCustomersAreNoLongerFound() {
+        index.remove(3);
+
+        assertThat(ids(index.search("josh", 10))).containsExactly(4L);
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.contains(3)).isFalse();
+        assertThat(index.ids()).containsExactly(1, 2, 4, 5);
+    }
+
+    @Test
+    public void customersAddedOutOfIdOrderAreFoundOnce() {
+        // Late commits and the refresher add IDs below ones already indexed
+        index.add(new Customer(10, "Joshua", "Tree"));
+        index.add(new Customer(0, "Josh", "Zero"));
+        index.add(new Customer(4, "Josh", "Long"));
+        index.remove(10);
+
+        assertThat(ids(index.search("josh", 10))).containsExactly(0L, 3L, 4L);
+        assertThat(index.ids()).containsExactly(0, 1, 2, 3, 4, 5);
+    }
+
+    private static List<Long> ids(List<Customer> customers) {
+        return customers.stream().map(Customer::getId).toList();
+    }
+}
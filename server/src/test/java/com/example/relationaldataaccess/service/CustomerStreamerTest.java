@@ -0,0 +1,117 @@
+package com.example.relationaldataaccess.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A query that fails after part of the rows have been written must not produce a body that looks
+ * complete.
+ */
+public class CustomerStreamerTest {
+
+    private static final String SQL = "SELECT id, first_name, last_name FROM customers ORDER BY id";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CustomerStreamer streamer;
+    private DriverManagerDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:streamer;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customers");
+        jdbcTemplate.execute("CREATE TABLE customers(id SERIAL PRIMARY KEY, first_name VARCHAR(255), last_name VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO customers(first_name, last_name) "
+                + "SELECT 'First' || x, 'Last' || x FROM SYSTEM_RANGE(1, 1000)");
+
+        streamer = new CustomerStreamer();
+        ReflectionTestUtils.setField(streamer, "dataSource", dataSource);
+        ReflectionTestUtils.setField(streamer, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(streamer, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(streamer, "fetchSize", 100);
+        streamer.init();
+    }
+
+    @Test
+    public void completeStreamIsAWellFormedArray() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        streamer.write(body, MediaType.APPLICATION_JSON, SQL);
+
+        assertThat(objectMapper.readTree(body.toByteArray()).size()).isEqualTo(1000);
+    }
+
+    @Test
+    public void failureMidStreamLeavesTheArrayUnterminated() {
+        failAfter(800);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> streamer.write(body, MediaType.APPLICATION_JSON, SQL))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        String written = body.toString(StandardCharsets.UTF_8);
+        assertThat(written).startsWith("[{\"id\":1,").doesNotEndWith("]");
+        assertThatThrownBy(() -> objectMapper.readTree(written)).isInstanceOf(JsonProcessingException.class);
+    }
+
+    @Test
+    public void failedExportKeepsTheRowsWrittenWholeAndFails() throws Exception {
+        failAfter(800);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> streamer.export(body, MediaType.APPLICATION_NDJSON, 0))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        String[] lines = body.toString(StandardCharsets.UTF_8).split("\n", -1);
+        // Every row read before the failure arrives complete, so the client can resume after the last ID
+        assertThat(lines).hasSize(801);
+        assertThat(lines[800]).isEmpty();
+        assertThat(objectMapper.readTree(lines[799]).get("id").asLong()).isEqualTo(800);
+    }
+
+    @Test
+    public void failedCsvExportEndsOnARowBoundary() {
+        failAfter(800);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> streamer.export(body, CustomerStreamer.TEXT_CSV, 0))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(body.toString(StandardCharsets.UTF_8)).startsWith("id,first_name,last_name\r\n")
+                .endsWith("\r\n800,First800,Last800\r\n");
+    }
+
+    // Lets the real query run, but fails it like a dropped connection once some rows have been read
+    private void failAfter(int rows) {
+        JdbcTemplate failing = new JdbcTemplate(dataSource) {
+            @Override
+            public void query(PreparedStatementCreator psc, RowCallbackHandler rch) {
+                int[] count = {0};
+                super.query(psc, rs -> {
+                    if (count[0]++ == rows) {
+                        throw new DataAccessResourceFailureException("Connection reset");
+                    }
+                    rch.processRow(rs);
+                });
+            }
+        };
+        ReflectionTestUtils.setField(streamer, "streamingJdbcTemplate", failing);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.relationaldataaccess.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.relationaldataaccess.Customer;
+
+/**
+ * Group-committed creates against the H2 test profile.
+ */
+@SpringBootTest(properties = {
+        "customers.create.group-commit.enabled=true",
+        "customers.create.group-commit.max-delay=20ms"
+})
+@ActiveProfiles("test")
+public class CustomerWriterTest {
+
+    @Autowired
+    private CustomerWriter customerWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void concurrentCreatesEachGetTheirOwnRow() throws Exception {
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Customer>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String lastName = "Writer" + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return customerWriter.create("Group", lastName);
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < threads; i++) {
+                Customer created = futures.get(i).get();
+                assertThat(created.getLastName()).isEqualTo("Writer" + i);
+                String stored = jdbcTemplate.queryForObject(
+                        "SELECT last_name FROM customers WHERE id = ?", String.class, created.getId());
+                assertThat(stored).isEqualTo("Writer" + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.relationaldataaccess.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class MicroBatcherTest {
+
+    @Test
+    public void concurrentRequestsShareABatchAndGetTheirOwnResult() throws Exception {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test-batcher", 100, Duration.ofMillis(1),
+                requests -> {
+                    batchSizes.add(requests.size());
+                    firstBatchStarted.countDown();
+                    await(release);
+                    return requests.stream().map(i -> i * 10).toList();
+                })) {
+            // Hold the worker in the first batch while the rest queue up behind it
+            CompletableFuture<Integer> first = batcher.submit(0);
+            assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            List<CompletableFuture<Integer>> rest = new ArrayList<>();
+            for (int i = 1; i <= 50; i++) {
+                rest.add(batcher.submit(i));
+            }
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(0);
+            for (int i = 1; i <= 50; i++) {
+                assertThat(rest.get(i - 1).get(5, TimeUnit.SECONDS)).isEqualTo(i * 10);
+            }
+            assertThat(batchSizes).containsExactly(1, 50);
+        }
+    }
+
+    @Test
+    public void batchesAreCappedAtMaxBatchSize() throws Exception {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test-batcher", 4, Duration.ZERO,
+                requests -> {
+                    await(release);
+                    batchSizes.add(requests.size());
+                    return requests;
+                })) {
+            List<CompletableFuture<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                results.add(batcher.submit(i));
+            }
+            release.countDown();
+            for (CompletableFuture<Integer> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+            assertThat(batchSizes).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(4));
+            assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(10);
+        }
+    }
+
+    @Test
+    public void failingBatchFailsEveryRequestInIt() {
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test-batcher", 10, Duration.ofMillis(5),
+                requests -> {
+                    throw new IllegalStateException("boom");
+                })) {
+            CompletableFuture<Integer> first = batcher.submit(1);
+            CompletableFuture<Integer> second = batcher.submit(2);
+
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    public void workerSurvivesAnErrorInTheHandler() throws Exception {
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test-batcher", 10, Duration.ZERO,
+                requests -> {
+                    if (requests.contains(0)) {
+                        throw new StackOverflowError("deep");
+                    }
+                    return requests;
+                })) {
+            CompletableFuture<Integer> failed = batcher.submit(0);
+
+            assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(StackOverflowError.class);
+            assertThat(batcher.submit(1).get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void submitAfterCloseFails() {
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test-batcher", 10, Duration.ZERO, requests -> requests);
+        batcher.close();
+
+        assertThat(batcher.submit(1)).isCompletedExceptionally();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
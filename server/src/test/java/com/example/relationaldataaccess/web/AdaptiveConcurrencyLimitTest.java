@@ -0,0 +1,63 @@
+package com.example.relationaldataaccess.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void rejectsBeyondTheLimitWithoutWaiting() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 2, 2, Duration.ofMillis(100), 0.5);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+
+        limit.release(FAST);
+        assertThat(limit.getInFlight()).isEqualTo(1);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void fastRequestsAtTheLimitRaiseIt() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, Duration.ofMillis(100), 0.5);
+
+        for (int round = 0; round < 20; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(FAST);
+            }
+        }
+
+        assertThat(limit.getLimit()).isGreaterThan(4).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    public void slowRequestsLowerItOncePerWindow() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 10, Duration.ofMillis(50), 0.5);
+        Thread.sleep(60);
+
+        for (int i = 0; i < 4; i++) {
+            limit.tryAcquire();
+        }
+        for (int i = 0; i < 4; i++) {
+            limit.release(SLOW);
+        }
+        assertThat(limit.getLimit()).isEqualTo(4);
+
+        Thread.sleep(60);
+        limit.tryAcquire();
+        limit.release(SLOW);
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+}
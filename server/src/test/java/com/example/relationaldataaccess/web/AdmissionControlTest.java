@@ -0,0 +1,112 @@
+package com.example.relationaldataaccess.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+/**
+ * Admission control with fixed limits and a small per-client burst.
+ */
+@SpringBootTest(properties = {
+        "admission.enabled=true",
+        "admission.adaptive=false",
+        "admission.reads.limit=2",
+        "admission.rate-limit.enabled=true",
+        "admission.rate-limit.requests-per-second=0.1",
+        "admission.rate-limit.burst=3"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AdmissionControlTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdmissionControlInterceptor admissionControl;
+
+    @Test
+    public void clientOverItsRateGets429() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/customers").with(client("10.0.0.1")))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/customers").with(client("10.0.0.1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+
+        // Other clients have their own bucket
+        mockMvc.perform(get("/api/customers").with(client("10.0.0.2")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void readsBeyondTheLimitGet503() throws Exception {
+        AdaptiveConcurrencyLimit reads = admissionControl.getReadLimit();
+        reads.tryAcquire();
+        reads.tryAcquire();
+        try {
+            mockMvc.perform(get("/api/customers/1").with(client("10.0.0.3")))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        } finally {
+            reads.release(0);
+            reads.release(0);
+        }
+        mockMvc.perform(get("/api/customers/1").with(client("10.0.0.3")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void longRunningRequestsUseTheirOwnLimit() throws Exception {
+        AdaptiveConcurrencyLimit reads = admissionControl.getReadLimit();
+        reads.tryAcquire();
+        reads.tryAcquire();
+        try {
+            mockMvc.perform(get("/api/customers").param("unpaged", "true").with(client("10.0.0.4")))
+                    .andExpect(status().isOk());
+        } finally {
+            reads.release(0);
+            reads.release(0);
+        }
+
+        AdaptiveConcurrencyLimit streams = admissionControl.getStreamLimit();
+        int limit = streams.getLimit();
+        for (int i = 0; i < limit; i++) {
+            streams.tryAcquire();
+        }
+        try {
+            mockMvc.perform(get("/api/customers").param("unpaged", "true").with(client("10.0.0.4")))
+                    .andExpect(status().isServiceUnavailable());
+            mockMvc.perform(get("/api/customers").with(client("10.0.0.4")))
+                    .andExpect(status().isOk());
+        } finally {
+            for (int i = 0; i < limit; i++) {
+                streams.release(0);
+            }
+        }
+        // A stream's duration never moves its limit
+        streams.tryAcquire();
+        streams.release(TimeUnit.MINUTES.toNanos(5));
+        assertThat(streams.getLimit()).isEqualTo(limit);
+    }
+
+    private static RequestPostProcessor client(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
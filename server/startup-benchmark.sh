@@ -0,0 +1,66 @@
+#!/bin/bash
+
+# Startup benchmark: time from launching the JVM to the first successfully served request.
+# Usage: ./startup-benchmark.sh [jar|fast] [runs]
+#   jar   the plain fat jar from ./mvnw package (default)
+#   fast  the AOT + CDS layout from ./mvnw -Pfast-startup package
+# The database settings come from the usual environment variables (DB_HOST, DB_NAME, ...);
+# STARTUP_URL overrides the probed request (default: the first page of customers).
+
+set -e
+
+MODE=${1:-jar}
+RUNS=${2:-5}
+PORT=${STARTUP_PORT:-8099}
+URL=${STARTUP_URL:-http://localhost:$PORT/api/customers?limit=1}
+JAR=relational-data-access-complete-0.0.1-SNAPSHOT.jar
+
+case "$MODE" in
+    jar)
+        DIR=target
+        JAVA_ARGS="-jar $JAR"
+        ;;
+    fast)
+        DIR=target/application
+        JAVA_ARGS="-XX:SharedArchiveFile=application.jsa -Xlog:cds=error -Dspring.aot.enabled=true -jar $JAR"
+        PROFILES_SUFFIX=fast-startup
+        ;;
+    *)
+        echo "Unknown mode '$MODE' (expected jar or fast)"
+        exit 1
+        ;;
+esac
+
+if [ ! -f "$DIR/$JAR" ]; then
+    echo "❌ $DIR/$JAR not found - build it first"
+    exit 1
+fi
+
+PROFILES=${SPRING_PROFILES_ACTIVE:-}
+if [ -n "$PROFILES_SUFFIX" ]; then
+    PROFILES=${PROFILES:+$PROFILES,}$PROFILES_SUFFIX
+fi
+
+results=()
+for run in $(seq 1 "$RUNS"); do
+    start=$(date +%s%N)
+    (cd "$DIR" && SPRING_PROFILES_ACTIVE=$PROFILES exec java $JAVA_ARGS --server.port=$PORT > /tmp/startup-benchmark.log 2>&1) &
+    pid=$!
+
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 $pid 2>/dev/null; then
+            echo "❌ Application exited during startup, see /tmp/startup-benchmark.log"
+            exit 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    results+=("$elapsed")
+    echo "Run $run: first request served after ${elapsed} ms"
+
+    kill $pid
+    wait $pid 2>/dev/null || true
+done
+
+median=$(printf '%s\n' "${results[@]}" | sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}')
+echo "✅ $MODE: median time to first request ${median} ms over $RUNS runs"